@@ -0,0 +1,56 @@
+package com.zephyrcicd.demo.alert;
+
+import com.zephyrcicd.demo.entity.SensorData;
+import com.zephyrcicd.demo.ingest.SensorDataWriteListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 写入时告警引擎
+ * 挂在 {@link com.zephyrcicd.demo.ingest.SensorDataWriter} 的写入回调上，数据落库后立即按规则评估并推送告警，
+ * 替代轮询 status IN (1, 2) 的告警查询。
+ * 只有经 SensorDataWriter 写入的数据会被评估，直接调用 TdTemplate 的写入不会触发告警
+ *
+ * @author zephyr
+ */
+@Component
+@ConditionalOnProperty(prefix = "demo.alert", name = "enabled", havingValue = "true")
+public class AlertEngine implements SensorDataWriteListener {
+
+    private static final Logger log = LoggerFactory.getLogger(AlertEngine.class);
+
+    private final AlertEvaluator evaluator;
+    private final List<AlertListener> listeners;
+
+    public AlertEngine(ObjectProvider<AlertRule> ruleProvider, ObjectProvider<AlertListener> listenerProvider,
+                       AlertProperties properties) {
+        List<AlertRule> rules = ruleProvider.orderedStream().collect(Collectors.toList());
+        this.evaluator = new AlertEvaluator(rules, TimeUnit.MINUTES.toMillis(properties.getDeviceIdleMinutes()));
+        this.listeners = listenerProvider.orderedStream().collect(Collectors.toList());
+        log.info("告警引擎已启用: {} 条规则, {} 个监听器", rules.size(), listeners.size());
+    }
+
+    @Override
+    public void onWritten(List<SensorData> dataList) {
+        for (AlertEvent event : evaluator.evaluate(dataList)) {
+            for (AlertListener listener : listeners) {
+                try {
+                    listener.onAlert(event);
+                } catch (RuntimeException e) {
+                    log.warn("告警监听器执行失败: {}", listener.getClass().getSimpleName(), e);
+                }
+            }
+        }
+    }
+
+    public AlertEvaluator getEvaluator() {
+        return evaluator;
+    }
+}
@@ -0,0 +1,153 @@
+package com.zephyrcicd.demo.alert;
+
+import com.zephyrcicd.demo.entity.SensorData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 告警规则评估器
+ * <p>
+ * 设备状态存放在 {@link ConcurrentHashMap} 中，查找只锁定所在的桶；同一设备的评估在该设备的状态数组上加锁，
+ * 保证规则按写入顺序看到数据，不同设备之间互不阻塞。
+ * <p>
+ * 配置了空闲时长时，超过该时长没有新数据的设备状态会在后续评估中被清除（至多每个空闲周期检查一次），
+ * 避免设备上下线频繁时状态无限增长；被清除的设备再次上报时从初始状态开始评估
+ *
+ * @author zephyr
+ */
+public class AlertEvaluator {
+
+    private final AlertRule[] rules;
+    private final long idleEvictMillis;
+    private final Map<String, DeviceState> deviceStates = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.currentTimeMillis());
+
+    public AlertEvaluator(List<? extends AlertRule> rules) {
+        this(rules, 0);
+    }
+
+    /**
+     * @param rules           告警规则
+     * @param idleEvictMillis 设备空闲多久后清除其状态（毫秒），小于等于 0 表示不清除
+     */
+    public AlertEvaluator(List<? extends AlertRule> rules, long idleEvictMillis) {
+        this.rules = rules.toArray(new AlertRule[0]);
+        this.idleEvictMillis = idleEvictMillis;
+    }
+
+    /**
+     * 评估一批数据
+     *
+     * @param dataList 传感器数据（同一设备的数据应按时间升序）
+     * @return 触发的告警，无告警时返回空列表
+     */
+    public List<AlertEvent> evaluate(List<SensorData> dataList) {
+        return evaluate(dataList, System.currentTimeMillis());
+    }
+
+    List<AlertEvent> evaluate(List<SensorData> dataList, long now) {
+        if (rules.length == 0) {
+            return Collections.emptyList();
+        }
+        maybeEvict(now);
+        List<AlertEvent> events = null;
+        for (SensorData data : dataList) {
+            if (data.getDeviceId() == null || data.getTs() == null) {
+                continue;
+            }
+            DeviceState device = touch(data.getDeviceId(), now);
+            synchronized (device) {
+                for (int i = 0; i < rules.length; i++) {
+                    AlertEvent event = rules[i].evaluate(data, device.states[i]);
+                    if (event != null) {
+                        if (events == null) {
+                            events = new ArrayList<>();
+                        }
+                        events.add(event);
+                    }
+                }
+            }
+        }
+        return events == null ? Collections.emptyList() : events;
+    }
+
+    /**
+     * 取出设备状态并刷新最近上报时间
+     * 刷新在 {@link ConcurrentHashMap#compute} 内完成，与 {@link #evictIdle(long)} 的条件删除互斥，
+     * 因此返回的状态不会在刷新前被清除而脱离映射
+     */
+    private DeviceState touch(String deviceId, long now) {
+        return deviceStates.compute(deviceId, (key, device) -> {
+            if (device == null) {
+                device = new DeviceState(rules.length);
+            }
+            device.lastSeen = now;
+            return device;
+        });
+    }
+
+    /**
+     * 清除设备状态（设备下线时调用）
+     *
+     * @param deviceId 设备ID
+     */
+    public void forget(String deviceId) {
+        deviceStates.remove(deviceId);
+    }
+
+    /**
+     * 清除空闲超过配置时长的设备状态
+     *
+     * @param now 当前时间（毫秒）
+     * @return 清除的设备数
+     */
+    public int evictIdle(long now) {
+        if (idleEvictMillis <= 0) {
+            return 0;
+        }
+        int[] evicted = {0};
+        for (String deviceId : deviceStates.keySet()) {
+            // 空闲判断与删除在同一次 computeIfPresent 中完成，与 touch 的刷新互斥
+            deviceStates.computeIfPresent(deviceId, (key, device) -> {
+                if (now - device.lastSeen < idleEvictMillis) {
+                    return device;
+                }
+                evicted[0]++;
+                return null;
+            });
+        }
+        return evicted[0];
+    }
+
+    public int getDeviceCount() {
+        return deviceStates.size();
+    }
+
+    private void maybeEvict(long now) {
+        long last = lastSweep.get();
+        if (idleEvictMillis > 0 && now - last >= idleEvictMillis && lastSweep.compareAndSet(last, now)) {
+            evictIdle(now);
+        }
+    }
+
+    /**
+     * 单个设备的规则状态与最近一次上报时间
+     */
+    private static final class DeviceState {
+
+        private final AlertRuleState[] states;
+        private volatile long lastSeen;
+
+        private DeviceState(int ruleCount) {
+            states = new AlertRuleState[ruleCount];
+            for (int i = 0; i < ruleCount; i++) {
+                states[i] = new AlertRuleState();
+            }
+        }
+    }
+}
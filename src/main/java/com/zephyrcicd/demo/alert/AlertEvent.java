@@ -0,0 +1,69 @@
+package com.zephyrcicd.demo.alert;
+
+import com.zephyrcicd.demo.entity.SensorData;
+
+/**
+ * 告警事件
+ *
+ * @author zephyr
+ */
+public class AlertEvent {
+
+    /**
+     * 触发的规则名称
+     */
+    private final String ruleName;
+
+    /**
+     * 设备ID
+     */
+    private final String deviceId;
+
+    /**
+     * 触发告警的数据时间戳
+     */
+    private final Long ts;
+
+    /**
+     * 告警描述
+     */
+    private final String message;
+
+    /**
+     * 触发告警的原始数据
+     */
+    private final SensorData data;
+
+    public AlertEvent(String ruleName, SensorData data, String message) {
+        this.ruleName = ruleName;
+        this.deviceId = data.getDeviceId();
+        this.ts = data.getTs();
+        this.message = message;
+        this.data = data;
+    }
+
+    public String getRuleName() {
+        return ruleName;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public Long getTs() {
+        return ts;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public SensorData getData() {
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        return "AlertEvent{rule=" + ruleName + ", deviceId=" + deviceId + ", ts=" + ts + ", message=" + message + "}";
+    }
+}
@@ -0,0 +1,17 @@
+package com.zephyrcicd.demo.alert;
+
+/**
+ * 告警监听器
+ *
+ * @author zephyr
+ */
+public interface AlertListener {
+
+    /**
+     * 告警触发时回调
+     * 回调运行在写入线程上，耗时操作（通知、落库等）应自行异步处理
+     *
+     * @param event 告警事件
+     */
+    void onAlert(AlertEvent event);
+}
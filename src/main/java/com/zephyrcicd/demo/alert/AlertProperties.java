@@ -0,0 +1,90 @@
+package com.zephyrcicd.demo.alert;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 告警规则配置
+ *
+ * @author zephyr
+ */
+@ConfigurationProperties(prefix = "demo.alert")
+public class AlertProperties {
+
+    /**
+     * 是否启用写入时告警
+     */
+    private boolean enabled = false;
+
+    /**
+     * 高温阈值（°C）
+     */
+    private double temperatureHigh = 35.0;
+
+    /**
+     * 高温持续多少秒后告警
+     */
+    private long temperatureSustainSeconds = 60;
+
+    /**
+     * 温度每秒最大变化量（°C/s）
+     */
+    private double temperatureMaxRate = 2.0;
+
+    /**
+     * 低电压阈值（V）
+     */
+    private double voltageLow = 3.0;
+
+    /**
+     * 设备空闲多少分钟后清除其告警状态，小于等于 0 表示不清除
+     */
+    private long deviceIdleMinutes = 60;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getTemperatureHigh() {
+        return temperatureHigh;
+    }
+
+    public void setTemperatureHigh(double temperatureHigh) {
+        this.temperatureHigh = temperatureHigh;
+    }
+
+    public long getTemperatureSustainSeconds() {
+        return temperatureSustainSeconds;
+    }
+
+    public void setTemperatureSustainSeconds(long temperatureSustainSeconds) {
+        this.temperatureSustainSeconds = temperatureSustainSeconds;
+    }
+
+    public double getTemperatureMaxRate() {
+        return temperatureMaxRate;
+    }
+
+    public void setTemperatureMaxRate(double temperatureMaxRate) {
+        this.temperatureMaxRate = temperatureMaxRate;
+    }
+
+    public double getVoltageLow() {
+        return voltageLow;
+    }
+
+    public void setVoltageLow(double voltageLow) {
+        this.voltageLow = voltageLow;
+    }
+
+    public long getDeviceIdleMinutes() {
+        return deviceIdleMinutes;
+    }
+
+    public void setDeviceIdleMinutes(long deviceIdleMinutes) {
+        this.deviceIdleMinutes = deviceIdleMinutes;
+    }
+}
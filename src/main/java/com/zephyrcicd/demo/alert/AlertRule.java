@@ -0,0 +1,26 @@
+package com.zephyrcicd.demo.alert;
+
+import com.zephyrcicd.demo.entity.SensorData;
+
+/**
+ * 告警规则
+ * 规则本身无状态，设备维度的状态保存在 {@link AlertRuleState} 中
+ *
+ * @author zephyr
+ */
+public interface AlertRule {
+
+    /**
+     * 规则名称
+     */
+    String getName();
+
+    /**
+     * 按写入顺序评估一条数据
+     *
+     * @param data  传感器数据
+     * @param state 该设备在本规则上的状态
+     * @return 告警事件，未触发时返回 null
+     */
+    AlertEvent evaluate(SensorData data, AlertRuleState state);
+}
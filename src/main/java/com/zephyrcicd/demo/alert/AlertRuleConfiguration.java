@@ -0,0 +1,58 @@
+package com.zephyrcicd.demo.alert;
+
+import com.zephyrcicd.demo.entity.SensorData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 默认告警规则
+ * 需要自定义规则时直接声明 {@link AlertRule} 类型的 Bean 即可
+ *
+ * @author zephyr
+ */
+@Configuration
+@EnableConfigurationProperties(AlertProperties.class)
+@ConditionalOnProperty(prefix = "demo.alert", name = "enabled", havingValue = "true")
+public class AlertRuleConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(AlertRuleConfiguration.class);
+
+    @Bean
+    public AlertRule temperatureHighSustainedRule(AlertProperties properties) {
+        ThresholdRule condition = ThresholdRule.above("temperature-high", "temperature",
+                SensorData::getTemperature, properties.getTemperatureHigh());
+        return new SustainedRule("temperature-high-sustained", condition,
+                properties.getTemperatureSustainSeconds() * 1000);
+    }
+
+    @Bean
+    public AlertRule temperatureRateRule(AlertProperties properties) {
+        return new RateOfChangeRule("temperature-rate", "temperature",
+                SensorData::getTemperature, properties.getTemperatureMaxRate());
+    }
+
+    @Bean
+    public AlertRule voltageLowRule(AlertProperties properties) {
+        return ThresholdRule.below("voltage-low", "voltage", SensorData::getVoltage, properties.getVoltageLow());
+    }
+
+    @Bean
+    public AlertRule statusAlarmRule() {
+        return new StatusTransitionRule("status-alarm", null, 1);
+    }
+
+    @Bean
+    public AlertRule statusFaultRule() {
+        return new StatusTransitionRule("status-fault", null, 2);
+    }
+
+    @Bean
+    public AlertListener loggingAlertListener() {
+        return event -> log.warn("⚠ 告警: 规则={}, 设备={}, 时间={}, {}",
+                event.getRuleName(), event.getDeviceId(), event.getTs(), event.getMessage());
+    }
+}
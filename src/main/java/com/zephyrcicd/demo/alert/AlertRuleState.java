@@ -0,0 +1,35 @@
+package com.zephyrcicd.demo.alert;
+
+/**
+ * 单个设备在单条规则上的状态
+ * 由 {@link AlertEvaluator} 按设备加锁后访问，本身不做同步
+ *
+ * @author zephyr
+ */
+public class AlertRuleState {
+
+    /**
+     * 上一条数据的时间戳，未收到数据时为 {@link Long#MIN_VALUE}
+     */
+    long lastTs = Long.MIN_VALUE;
+
+    /**
+     * 上一条数据的取值（变化率规则）
+     */
+    double lastValue = Double.NaN;
+
+    /**
+     * 上一条数据的状态（状态变化规则）
+     */
+    Integer lastStatus;
+
+    /**
+     * 条件开始持续成立的时间戳，不成立时为 {@link Long#MIN_VALUE}（持续规则）
+     */
+    long sinceTs = Long.MIN_VALUE;
+
+    /**
+     * 本轮持续期内是否已经告警过（持续规则）
+     */
+    boolean fired;
+}
@@ -0,0 +1,60 @@
+package com.zephyrcicd.demo.alert;
+
+import com.zephyrcicd.demo.entity.SensorData;
+
+import java.util.function.Function;
+
+/**
+ * 变化率规则：相邻两条数据的每秒变化量绝对值超过阈值时告警
+ *
+ * @author zephyr
+ */
+public class RateOfChangeRule implements AlertRule {
+
+    private final String name;
+    private final String field;
+    private final Function<SensorData, ? extends Number> getter;
+    private final double maxPerSecond;
+
+    /**
+     * @param name         规则名称
+     * @param field        字段名（仅用于告警描述）
+     * @param getter       字段取值方法
+     * @param maxPerSecond 每秒允许的最大变化量
+     */
+    public RateOfChangeRule(String name, String field, Function<SensorData, ? extends Number> getter,
+                            double maxPerSecond) {
+        this.name = name;
+        this.field = field;
+        this.getter = getter;
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public AlertEvent evaluate(SensorData data, AlertRuleState state) {
+        Number number = getter.apply(data);
+        long ts = data.getTs();
+        if (number == null || ts <= state.lastTs) {
+            return null;
+        }
+        double value = number.doubleValue();
+        double previous = state.lastValue;
+        long elapsedMs = ts - state.lastTs;
+        state.lastTs = ts;
+        state.lastValue = value;
+        if (Double.isNaN(previous)) {
+            return null;
+        }
+        double ratePerSecond = (value - previous) * 1000.0 / elapsedMs;
+        if (Math.abs(ratePerSecond) > maxPerSecond) {
+            return new AlertEvent(name, data,
+                    field + " 变化率 " + String.format("%.3f", ratePerSecond) + "/s 超过 " + maxPerSecond + "/s");
+        }
+        return null;
+    }
+}
@@ -0,0 +1,53 @@
+package com.zephyrcicd.demo.alert;
+
+import com.zephyrcicd.demo.entity.SensorData;
+
+import java.util.Objects;
+
+/**
+ * 状态变化规则：设备状态从 from 变为 to 时告警
+ *
+ * @author zephyr
+ */
+public class StatusTransitionRule implements AlertRule {
+
+    private final String name;
+    private final Integer from;
+    private final Integer to;
+
+    /**
+     * @param name 规则名称
+     * @param from 变化前状态，为 null 表示任意其他状态
+     * @param to   变化后状态
+     */
+    public StatusTransitionRule(String name, Integer from, Integer to) {
+        this.name = name;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public AlertEvent evaluate(SensorData data, AlertRuleState state) {
+        Integer status = data.getStatus();
+        long ts = data.getTs();
+        if (status == null || ts <= state.lastTs) {
+            return null;
+        }
+        Integer previous = state.lastStatus;
+        state.lastTs = ts;
+        state.lastStatus = status;
+        // 设备首条数据没有可比较的前一状态
+        if (previous == null || Objects.equals(previous, status) || !Objects.equals(status, to)) {
+            return null;
+        }
+        if (from == null || Objects.equals(previous, from)) {
+            return new AlertEvent(name, data, "status " + previous + " -> " + status);
+        }
+        return null;
+    }
+}
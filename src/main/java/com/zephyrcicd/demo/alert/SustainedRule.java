@@ -0,0 +1,56 @@
+package com.zephyrcicd.demo.alert;
+
+import com.zephyrcicd.demo.entity.SensorData;
+
+/**
+ * 持续规则：阈值条件连续成立超过指定时长时告警一次
+ * 条件恢复后重新计时，再次持续超过时长才会再次告警
+ *
+ * @author zephyr
+ */
+public class SustainedRule implements AlertRule {
+
+    private final String name;
+    private final ThresholdRule condition;
+    private final long durationMs;
+
+    /**
+     * @param name       规则名称
+     * @param condition  阈值条件
+     * @param durationMs 持续时长（毫秒，按数据时间戳计算）
+     */
+    public SustainedRule(String name, ThresholdRule condition, long durationMs) {
+        this.name = name;
+        this.condition = condition;
+        this.durationMs = durationMs;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public AlertEvent evaluate(SensorData data, AlertRuleState state) {
+        long ts = data.getTs();
+        if (ts <= state.lastTs) {
+            // 乱序或重复数据不参与持续时间计算
+            return null;
+        }
+        state.lastTs = ts;
+        if (!condition.test(data)) {
+            state.sinceTs = Long.MIN_VALUE;
+            state.fired = false;
+            return null;
+        }
+        if (state.sinceTs == Long.MIN_VALUE) {
+            state.sinceTs = ts;
+        }
+        if (!state.fired && ts - state.sinceTs >= durationMs) {
+            state.fired = true;
+            return new AlertEvent(name, data,
+                    condition.describe(data) + " 持续 " + (ts - state.sinceTs) / 1000 + "s");
+        }
+        return null;
+    }
+}
@@ -0,0 +1,99 @@
+package com.zephyrcicd.demo.alert;
+
+import com.zephyrcicd.demo.entity.SensorData;
+
+import java.util.function.Function;
+
+/**
+ * 阈值规则：字段值高于（或低于）阈值时告警
+ * 也可作为 {@link SustainedRule} 的条件使用
+ *
+ * @author zephyr
+ */
+public class ThresholdRule implements AlertRule {
+
+    private final String name;
+    private final String field;
+    private final Function<SensorData, ? extends Number> getter;
+    private final boolean above;
+    private final double limit;
+
+    private ThresholdRule(String name, String field, Function<SensorData, ? extends Number> getter,
+                          boolean above, double limit) {
+        this.name = name;
+        this.field = field;
+        this.getter = getter;
+        this.above = above;
+        this.limit = limit;
+    }
+
+    /**
+     * 字段值大于阈值时告警
+     *
+     * @param name   规则名称
+     * @param field  字段名（仅用于告警描述）
+     * @param getter 字段取值方法
+     * @param limit  阈值
+     * @return 规则
+     */
+    public static ThresholdRule above(String name, String field, Function<SensorData, ? extends Number> getter,
+                                      double limit) {
+        return new ThresholdRule(name, field, getter, true, limit);
+    }
+
+    /**
+     * 字段值小于阈值时告警
+     *
+     * @param name   规则名称
+     * @param field  字段名（仅用于告警描述）
+     * @param getter 字段取值方法
+     * @param limit  阈值
+     * @return 规则
+     */
+    public static ThresholdRule below(String name, String field, Function<SensorData, ? extends Number> getter,
+                                      double limit) {
+        return new ThresholdRule(name, field, getter, false, limit);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 条件是否成立，字段为空时视为不成立
+     *
+     * @param data 传感器数据
+     * @return 是否越限
+     */
+    public boolean test(SensorData data) {
+        Number value = getter.apply(data);
+        if (value == null) {
+            return false;
+        }
+        return above ? value.doubleValue() > limit : value.doubleValue() < limit;
+    }
+
+    /**
+     * 告警描述，如 temperature=36.2 > 35.0
+     */
+    public String describe(SensorData data) {
+        return field + "=" + getter.apply(data) + (above ? " > " : " < ") + limit;
+    }
+
+    /**
+     * 边沿触发：越限时告警一次，恢复正常后才会再次告警
+     */
+    @Override
+    public AlertEvent evaluate(SensorData data, AlertRuleState state) {
+        if (!test(data)) {
+            state.fired = false;
+            return null;
+        }
+        if (state.fired) {
+            return null;
+        }
+        state.fired = true;
+        return new AlertEvent(name, data, describe(data));
+    }
+}
@@ -0,0 +1,48 @@
+package com.zephyrcicd.demo.bootstrap;
+
+/**
+ * 实体字段对应的列元数据
+ *
+ * @author zephyr
+ */
+public class ColumnMetadata {
+
+    private final String fieldName;
+    private final String columnName;
+    private final String type;
+    private final int length;
+    private final boolean tag;
+
+    public ColumnMetadata(String fieldName, String columnName, String type, int length, boolean tag) {
+        this.fieldName = fieldName;
+        this.columnName = columnName;
+        this.type = type;
+        this.length = length;
+        this.tag = tag;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public String getColumnName() {
+        return columnName;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public boolean isTag() {
+        return tag;
+    }
+
+    @Override
+    public String toString() {
+        return (tag ? "TAG " : "") + columnName + " " + type + (length > 0 ? "(" + length + ")" : "");
+    }
+}
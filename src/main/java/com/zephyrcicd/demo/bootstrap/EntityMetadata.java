@@ -0,0 +1,143 @@
+package com.zephyrcicd.demo.bootstrap;
+
+import com.zephyrcicd.tdengineorm.annotation.TdColumn;
+import com.zephyrcicd.tdengineorm.annotation.TdTable;
+import com.zephyrcicd.tdengineorm.annotation.TdTag;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 实体的表结构指纹，只用于发现实体定义变化（漂移告警），不参与建表与读写
+ * <p>
+ * starter 没有公开其解析出的实体元数据，这里按相同的规则（{@link TdTable}/{@link TdColumn}/{@link TdTag}，
+ * 未指定名称时驼峰转下划线）另行解析，结果按实体缓存。starter 自身在每次调用时的注解解析不受影响；
+ * 两者规则不一致时只会产生误报或漏报的漂移告警，不会影响建表。
+ * 指纹由超级表名及各列的名称、类型、长度、是否 TAG 计算，实体定义变化时指纹随之变化。
+ *
+ * @author zephyr
+ */
+public class EntityMetadata {
+
+    private static final Map<Class<?>, EntityMetadata> CACHE = new ConcurrentHashMap<>();
+
+    private final Class<?> entityClass;
+    private final String tableName;
+    private final List<ColumnMetadata> columns;
+    private final String fingerprint;
+
+    private EntityMetadata(Class<?> entityClass, String tableName, List<ColumnMetadata> columns) {
+        this.entityClass = entityClass;
+        this.tableName = tableName;
+        this.columns = Collections.unmodifiableList(columns);
+        this.fingerprint = computeFingerprint(tableName, columns);
+    }
+
+    /**
+     * 获取实体元数据（缓存）
+     *
+     * @param entityClass 实体类
+     * @return 元数据
+     */
+    public static EntityMetadata of(Class<?> entityClass) {
+        return CACHE.computeIfAbsent(entityClass, EntityMetadata::resolve);
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public List<ColumnMetadata> getColumns() {
+        return columns;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    private static EntityMetadata resolve(Class<?> entityClass) {
+        TdTable table = entityClass.getAnnotation(TdTable.class);
+        if (table == null) {
+            throw new IllegalArgumentException("实体类缺少 @TdTable 注解: " + entityClass.getName());
+        }
+        String tableName = table.value().isEmpty() ? toSnakeCase(entityClass.getSimpleName()) : table.value();
+
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> type = entityClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            hierarchy.add(0, type);
+        }
+        List<ColumnMetadata> columns = new ArrayList<>();
+        for (Class<?> type : hierarchy) {
+            for (Field field : type.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                    continue;
+                }
+                columns.add(resolveColumn(field));
+            }
+        }
+        return new EntityMetadata(entityClass, tableName, columns);
+    }
+
+    private static ColumnMetadata resolveColumn(Field field) {
+        TdColumn column = field.getAnnotation(TdColumn.class);
+        boolean tag = field.isAnnotationPresent(TdTag.class);
+        if (column == null) {
+            return new ColumnMetadata(field.getName(), toSnakeCase(field.getName()),
+                    field.getType().getSimpleName(), 0, tag);
+        }
+        String columnName = column.value().isEmpty() ? toSnakeCase(field.getName()) : column.value();
+        return new ColumnMetadata(field.getName(), columnName, column.type().name(), column.length(), tag);
+    }
+
+    private static String computeFingerprint(String tableName, List<ColumnMetadata> columns) {
+        StringBuilder canonical = new StringBuilder(tableName);
+        for (ColumnMetadata column : columns) {
+            canonical.append('|').append(column);
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(32);
+            for (int i = 0; i < 16; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toSnakeCase(String name) {
+        StringBuilder result = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                if (i > 0) {
+                    result.append('_');
+                }
+                result.append(Character.toLowerCase(c));
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    @Override
+    public String toString() {
+        return tableName + columns;
+    }
+}
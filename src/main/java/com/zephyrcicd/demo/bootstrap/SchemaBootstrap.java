@@ -0,0 +1,242 @@
+package com.zephyrcicd.demo.bootstrap;
+
+import com.zephyrcicd.tdengineorm.template.TdTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 超级表结构初始化
+ * <p>
+ * 所有实体的存在性检查合并为一次 information_schema 查询，只对缺失的超级表执行
+ * createStableTableIfNotExist；已存在的超级表与本地缓存的实体指纹比对，实体定义变化时告警
+ * （CREATE STABLE IF NOT EXISTS 不会修改已有超级表，需要手动 ALTER）。
+ * 漂移的指纹不会写回缓存，每次启动都会告警，直到手动变更后在配置中确认新的指纹。
+ * <p>
+ * LAZY 模式下检查推迟到首次写入，启动过程不访问数据库；检查失败时不标记完成，下次写入会重试。
+ * 推迟的只是建表（DDL 与 information_schema 查询），TdTemplate 每次调用时对实体注解的解析由 starter 负责，不受此处影响；
+ * {@link EntityMetadata} 仅用于计算指纹。
+ * 没有可用的 {@link DataSource} 或元数据查询失败时，退回到逐个实体执行建表语句。
+ *
+ * @author zephyr
+ */
+public class SchemaBootstrap {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaBootstrap.class);
+
+    static final String STABLES_SQL =
+            "SELECT stable_name FROM information_schema.ins_stables WHERE db_name = DATABASE()";
+
+    private final TdTemplate tdTemplate;
+    private final ObjectProvider<DataSource> dataSourceProvider;
+    private final SchemaFingerprintStore fingerprintStore;
+    private final SchemaBootstrapMode mode;
+    private final List<Class<?>> entities;
+    private final Map<String, String> acknowledgedFingerprints;
+
+    private final Set<Class<?>> ensured = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param tdTemplate               TdTemplate
+     * @param dataSourceProvider       查询超级表元数据的数据源
+     * @param fingerprintStore         指纹缓存，为 null 时不检查实体定义变化
+     * @param mode                     建表时机
+     * @param entities                 需要初始化的实体类
+     * @param acknowledgedFingerprints 已确认的漂移：超级表名 -> 手动变更后的实体指纹
+     */
+    public SchemaBootstrap(TdTemplate tdTemplate, ObjectProvider<DataSource> dataSourceProvider,
+                           SchemaFingerprintStore fingerprintStore, SchemaBootstrapMode mode,
+                           List<Class<?>> entities, Map<String, String> acknowledgedFingerprints) {
+        this.tdTemplate = tdTemplate;
+        this.dataSourceProvider = dataSourceProvider;
+        this.fingerprintStore = fingerprintStore;
+        this.mode = mode;
+        this.entities = new ArrayList<>(entities);
+        this.acknowledgedFingerprints = new LinkedHashMap<>(acknowledgedFingerprints);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (mode == SchemaBootstrapMode.EAGER) {
+            ensureAll(Collections.emptyList());
+        }
+    }
+
+    /**
+     * 写入前确保实体对应的超级表已存在
+     * 已确认过的实体只做一次集合查找
+     *
+     * @param entityClass 实体类
+     */
+    public void ensure(Class<?> entityClass) {
+        if (mode == SchemaBootstrapMode.NONE || ensured.contains(entityClass)) {
+            return;
+        }
+        ensureAll(Collections.singletonList(entityClass));
+    }
+
+    /**
+     * 检查所有已配置的实体及额外指定的实体，缺失的超级表一并创建
+     *
+     * @param extraEntities 额外需要检查的实体
+     */
+    public synchronized void ensureAll(Collection<Class<?>> extraEntities) {
+        Set<Class<?>> pending = new LinkedHashSet<>(entities);
+        pending.addAll(extraEntities);
+        pending.removeAll(ensured);
+        if (pending.isEmpty()) {
+            return;
+        }
+        long startTime = System.nanoTime();
+        List<EntityMetadata> metadataList = new ArrayList<>(pending.size());
+        for (Class<?> entityClass : pending) {
+            metadataList.add(EntityMetadata.of(entityClass));
+        }
+
+        Set<String> existing = queryExistingStables();
+        Function<String, String> cached = fingerprintStore == null ? tableName -> null : fingerprintStore::get;
+        SchemaPlan plan = plan(metadataList, existing, cached);
+        for (EntityMetadata metadata : plan.getDrifted()) {
+            if (isAcknowledged(metadata)) {
+                log.info("实体 {} 的定义变化已确认，更新超级表 {} 的指纹",
+                        metadata.getEntityClass().getSimpleName(), metadata.getTableName());
+                continue;
+            }
+            log.warn("实体 {} 的定义与上次建表时不一致，已有超级表 {} 不会自动变更，请确认是否需要 ALTER；"
+                            + "处理后在 demo.schema.acknowledged-fingerprints 中加入 {}: {} 以确认: {}",
+                    metadata.getEntityClass().getSimpleName(), metadata.getTableName(),
+                    metadata.getTableName(), metadata.getFingerprint(), metadata);
+        }
+        for (EntityMetadata metadata : plan.getToCreate()) {
+            tdTemplate.createStableTableIfNotExist(metadata.getEntityClass());
+        }
+        if (fingerprintStore != null) {
+            fingerprintStore.putAll(fingerprintsToStore(metadataList, cached, acknowledgedFingerprints));
+        }
+        ensured.addAll(pending);
+
+        double elapsedMs = (System.nanoTime() - startTime) / 1_000_000.0;
+        log.info("表结构检查完成: 实体 {} 个, 建表 {} 个, 元数据查询 {} [耗时: {}ms]",
+                metadataList.size(), plan.getToCreate().size(), existing == null ? "不可用" : "1 次", elapsedMs);
+    }
+
+    /**
+     * 根据已存在的超级表和缓存指纹决定需要建表的实体
+     *
+     * @param metadataList       待检查的实体
+     * @param existingStables    已存在的超级表名（小写），为 null 表示未知，此时全部执行建表
+     * @param cachedFingerprints 超级表名 -> 缓存指纹
+     * @return 检查结果
+     */
+    static SchemaPlan plan(List<EntityMetadata> metadataList, Set<String> existingStables,
+                           Function<String, String> cachedFingerprints) {
+        List<EntityMetadata> toCreate = new ArrayList<>();
+        List<EntityMetadata> drifted = new ArrayList<>();
+        for (EntityMetadata metadata : metadataList) {
+            if (existingStables == null
+                    || !existingStables.contains(metadata.getTableName().toLowerCase(Locale.ROOT))) {
+                toCreate.add(metadata);
+                continue;
+            }
+            String cached = cachedFingerprints.apply(metadata.getTableName());
+            if (cached != null && !cached.equals(metadata.getFingerprint())) {
+                drifted.add(metadata);
+            }
+        }
+        return new SchemaPlan(toCreate, drifted);
+    }
+
+    /**
+     * 需要写回缓存的指纹：与缓存一致、尚未缓存或已确认的实体
+     * 与缓存不一致且未确认的保留旧指纹，下次启动继续告警；无法确认超级表是否存在时也不会覆盖旧指纹
+     *
+     * @param metadataList             已检查的实体
+     * @param cachedFingerprints       超级表名 -> 缓存指纹
+     * @param acknowledgedFingerprints 超级表名 -> 已确认的指纹
+     * @return 超级表名 -> 指纹
+     */
+    static Map<String, String> fingerprintsToStore(List<EntityMetadata> metadataList,
+                                                   Function<String, String> cachedFingerprints,
+                                                   Map<String, String> acknowledgedFingerprints) {
+        Map<String, String> fingerprints = new LinkedHashMap<>();
+        for (EntityMetadata metadata : metadataList) {
+            String cached = cachedFingerprints.apply(metadata.getTableName());
+            if (cached == null || cached.equals(metadata.getFingerprint())
+                    || metadata.getFingerprint().equals(acknowledgedFingerprints.get(metadata.getTableName()))) {
+                fingerprints.put(metadata.getTableName(), metadata.getFingerprint());
+            }
+        }
+        return fingerprints;
+    }
+
+    private boolean isAcknowledged(EntityMetadata metadata) {
+        return metadata.getFingerprint().equals(acknowledgedFingerprints.get(metadata.getTableName()));
+    }
+
+    private Set<String> queryExistingStables() {
+        DataSource dataSource = dataSourceProvider.getIfAvailable();
+        if (dataSource == null) {
+            return null;
+        }
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(STABLES_SQL)) {
+            Set<String> stables = new HashSet<>();
+            while (resultSet.next()) {
+                stables.add(resultSet.getString(1).toLowerCase(Locale.ROOT));
+            }
+            return stables;
+        } catch (SQLException e) {
+            log.warn("查询超级表元数据失败，退回到逐个建表", e);
+            return null;
+        }
+    }
+
+    /**
+     * 表结构检查结果
+     */
+    static class SchemaPlan {
+
+        private final List<EntityMetadata> toCreate;
+        private final List<EntityMetadata> drifted;
+
+        SchemaPlan(List<EntityMetadata> toCreate, List<EntityMetadata> drifted) {
+            this.toCreate = toCreate;
+            this.drifted = drifted;
+        }
+
+        /**
+         * 需要建表的实体
+         */
+        List<EntityMetadata> getToCreate() {
+            return toCreate;
+        }
+
+        /**
+         * 超级表已存在但实体定义与缓存指纹不一致的实体
+         */
+        List<EntityMetadata> getDrifted() {
+            return drifted;
+        }
+    }
+}
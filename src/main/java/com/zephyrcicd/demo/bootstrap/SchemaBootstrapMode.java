@@ -0,0 +1,24 @@
+package com.zephyrcicd.demo.bootstrap;
+
+/**
+ * 超级表结构初始化时机
+ *
+ * @author zephyr
+ */
+public enum SchemaBootstrapMode {
+
+    /**
+     * 不自动建表，由应用自行调用 createStableTableIfNotExist
+     */
+    NONE,
+
+    /**
+     * 应用启动完成后立即检查并建表
+     */
+    EAGER,
+
+    /**
+     * 首次写入时检查并建表，启动过程不执行 DDL
+     */
+    LAZY
+}
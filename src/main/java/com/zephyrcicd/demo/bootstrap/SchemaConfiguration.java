@@ -0,0 +1,32 @@
+package com.zephyrcicd.demo.bootstrap;
+
+import com.zephyrcicd.demo.util.JdbcUrls;
+import com.zephyrcicd.tdengineorm.template.TdTemplate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.nio.file.Paths;
+
+/**
+ * 表结构初始化配置
+ *
+ * @author zephyr
+ */
+@Configuration
+@EnableConfigurationProperties(SchemaProperties.class)
+public class SchemaConfiguration {
+
+    @Bean
+    public SchemaBootstrap schemaBootstrap(TdTemplate tdTemplate, ObjectProvider<DataSource> dataSourceProvider,
+                                           SchemaProperties properties, Environment environment) {
+        SchemaFingerprintStore store = properties.getFingerprintFile().isEmpty() ? null
+                : new SchemaFingerprintStore(Paths.get(properties.getFingerprintFile()),
+                JdbcUrls.targetId(environment.getProperty("td-orm.url", "")));
+        return new SchemaBootstrap(tdTemplate, dataSourceProvider, store, properties.getMode(),
+                properties.getEntities(), properties.getAcknowledgedFingerprints());
+    }
+}
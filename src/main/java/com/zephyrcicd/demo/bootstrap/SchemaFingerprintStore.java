@@ -0,0 +1,94 @@
+package com.zephyrcicd.demo.bootstrap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 本地缓存的表结构指纹
+ * 记录每个数据源上已确认存在的超级表及其对应的实体指纹，重启后用于判断实体定义是否变化
+ *
+ * @author zephyr
+ */
+public class SchemaFingerprintStore {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaFingerprintStore.class);
+
+    private final Path file;
+    private final String scope;
+    private Properties properties;
+
+    /**
+     * @param file  指纹文件
+     * @param scope 指纹所属的数据源标识（如 {@link com.zephyrcicd.demo.util.JdbcUrls#targetId}），
+     *              不同数据源的指纹互不影响；会以明文写入文件，不应包含连接凭据
+     */
+    public SchemaFingerprintStore(Path file, String scope) {
+        this.file = file;
+        this.scope = scope;
+    }
+
+    /**
+     * 获取超级表的已缓存指纹
+     *
+     * @param tableName 超级表名
+     * @return 指纹，未缓存时返回 null
+     */
+    public synchronized String get(String tableName) {
+        return load().getProperty(key(tableName));
+    }
+
+    /**
+     * 更新指纹并写回文件
+     *
+     * @param fingerprints 超级表名 -> 指纹
+     */
+    public synchronized void putAll(Map<String, String> fingerprints) {
+        if (fingerprints.isEmpty()) {
+            return;
+        }
+        Properties current = load();
+        fingerprints.forEach((tableName, fingerprint) -> current.setProperty(key(tableName), fingerprint));
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                current.store(out, "tdengine-orm-demo schema fingerprints");
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("写入表结构指纹失败: {}", file, e);
+        }
+    }
+
+    private Properties load() {
+        if (properties == null) {
+            properties = new Properties();
+            if (Files.isRegularFile(file)) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    properties.load(in);
+                } catch (IOException e) {
+                    log.warn("读取表结构指纹失败，将视为无缓存: {}", file, e);
+                    properties = new Properties();
+                }
+                // 早期版本以完整连接 URL 区分数据源，可能带有凭据，下次写回时去掉
+                properties.stringPropertyNames().stream()
+                        .filter(key -> key.startsWith("jdbc:"))
+                        .forEach(properties::remove);
+            }
+        }
+        return properties;
+    }
+
+    private String key(String tableName) {
+        return scope + "#" + tableName;
+    }
+}
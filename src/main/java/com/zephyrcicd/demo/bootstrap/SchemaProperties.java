@@ -0,0 +1,71 @@
+package com.zephyrcicd.demo.bootstrap;
+
+import com.zephyrcicd.demo.entity.SensorData;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 表结构初始化配置
+ *
+ * @author zephyr
+ */
+@ConfigurationProperties(prefix = "demo.schema")
+public class SchemaProperties {
+
+    /**
+     * 建表时机
+     */
+    private SchemaBootstrapMode mode = SchemaBootstrapMode.LAZY;
+
+    /**
+     * 需要初始化的实体类
+     */
+    private List<Class<?>> entities = new ArrayList<>(Collections.singletonList(SensorData.class));
+
+    /**
+     * 表结构指纹缓存文件，应位于重启后保留的位置（容器部署时挂载持久卷），为空时不检查实体定义变化
+     */
+    private String fingerprintFile = "";
+
+    /**
+     * 已确认的实体定义变化：超级表名 -> 手动 ALTER 后的实体指纹（取自漂移告警日志）
+     */
+    private Map<String, String> acknowledgedFingerprints = new LinkedHashMap<>();
+
+    public SchemaBootstrapMode getMode() {
+        return mode;
+    }
+
+    public void setMode(SchemaBootstrapMode mode) {
+        this.mode = mode;
+    }
+
+    public List<Class<?>> getEntities() {
+        return entities;
+    }
+
+    public void setEntities(List<Class<?>> entities) {
+        this.entities = entities;
+    }
+
+    public String getFingerprintFile() {
+        return fingerprintFile;
+    }
+
+    public void setFingerprintFile(String fingerprintFile) {
+        this.fingerprintFile = fingerprintFile;
+    }
+
+    public Map<String, String> getAcknowledgedFingerprints() {
+        return acknowledgedFingerprints;
+    }
+
+    public void setAcknowledgedFingerprints(Map<String, String> acknowledgedFingerprints) {
+        this.acknowledgedFingerprints = acknowledgedFingerprints;
+    }
+}
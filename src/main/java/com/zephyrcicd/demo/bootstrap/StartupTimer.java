@@ -0,0 +1,63 @@
+package com.zephyrcicd.demo.bootstrap;
+
+import com.zephyrcicd.demo.entity.SensorData;
+import com.zephyrcicd.demo.ingest.SensorDataWriteListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * 启动耗时统计：JVM 启动到应用就绪、到首次写入成功的时间
+ *
+ * @author zephyr
+ */
+@Component
+public class StartupTimer implements SensorDataWriteListener {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimer.class);
+
+    private volatile long readyMillis = -1;
+    private volatile long firstWriteMillis = -1;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        readyMillis = uptime();
+        log.info("JVM 启动到应用就绪: {}ms", readyMillis);
+    }
+
+    @Override
+    public void onWritten(List<SensorData> dataList) {
+        if (firstWriteMillis >= 0) {
+            return;
+        }
+        synchronized (this) {
+            if (firstWriteMillis < 0) {
+                firstWriteMillis = uptime();
+                log.info("JVM 启动到首次写入成功: {}ms", firstWriteMillis);
+            }
+        }
+    }
+
+    /**
+     * JVM 启动到应用就绪的毫秒数，未就绪时为 -1
+     */
+    public long getReadyMillis() {
+        return readyMillis;
+    }
+
+    /**
+     * JVM 启动到首次写入成功的毫秒数，尚未写入时为 -1
+     */
+    public long getFirstWriteMillis() {
+        return firstWriteMillis;
+    }
+
+    private static long uptime() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
@@ -0,0 +1,50 @@
+package com.zephyrcicd.demo.count;
+
+import java.util.List;
+
+/**
+ * 分页结果
+ * 与 {@link com.zephyrcicd.tdengineorm.dto.Page} 字段一致，额外标记总数是否来自计数索引
+ *
+ * @param <T> 数据类型
+ * @author zephyr
+ */
+public class CountedPage<T> {
+
+    private final long total;
+    private final long pageNo;
+    private final long pageSize;
+    private final List<T> dataList;
+    private final boolean fromIndex;
+
+    public CountedPage(long total, long pageNo, long pageSize, List<T> dataList, boolean fromIndex) {
+        this.total = total;
+        this.pageNo = pageNo;
+        this.pageSize = pageSize;
+        this.dataList = dataList;
+        this.fromIndex = fromIndex;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getPageNo() {
+        return pageNo;
+    }
+
+    public long getPageSize() {
+        return pageSize;
+    }
+
+    public List<T> getDataList() {
+        return dataList;
+    }
+
+    /**
+     * 总数是否由计数索引给出（未执行 COUNT(*)）
+     */
+    public boolean isFromIndex() {
+        return fromIndex;
+    }
+}
@@ -0,0 +1,128 @@
+package com.zephyrcicd.demo.count;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按设备、按小时分桶的行数索引
+ * 每个设备的计数保存在一段连续的 int 数组中，下标为相对起始小时的偏移
+ * 统计耗时只与查询跨越的小时数有关，与数据行数无关
+ *
+ * @author zephyr
+ */
+public class HourlyCountIndex {
+
+    /**
+     * 一小时的毫秒数
+     */
+    public static final long HOUR_MS = 60 * 60 * 1000L;
+
+    private static final int INITIAL_CAPACITY = 24 * 7;
+
+    private final Map<String, DeviceBuckets> devices = new ConcurrentHashMap<>();
+
+    /**
+     * 时间戳是否对齐到整点
+     *
+     * @param ts 毫秒时间戳
+     * @return 是否整点
+     */
+    public static boolean isAligned(long ts) {
+        return Math.floorMod(ts, HOUR_MS) == 0;
+    }
+
+    /**
+     * 时间戳所在的小时序号（自 1970-01-01T00:00Z 起）
+     *
+     * @param ts 毫秒时间戳
+     * @return 小时序号
+     */
+    public static long hourOf(long ts) {
+        return Math.floorDiv(ts, HOUR_MS);
+    }
+
+    /**
+     * 记录一条数据
+     *
+     * @param deviceId 设备ID
+     * @param ts       数据时间戳
+     */
+    public void increment(String deviceId, long ts) {
+        add(deviceId, hourOf(ts), 1);
+    }
+
+    /**
+     * 为指定小时桶累加计数
+     *
+     * @param deviceId 设备ID
+     * @param hour     小时序号
+     * @param delta    增量
+     */
+    public void add(String deviceId, long hour, long delta) {
+        devices.computeIfAbsent(deviceId, key -> new DeviceBuckets()).add(hour, delta);
+    }
+
+    /**
+     * 统计行数
+     *
+     * @param deviceId 设备ID，为 null 时统计全部设备
+     * @param startTs  起始时间（包含，整点），为 null 表示不限
+     * @param endTs    结束时间（不包含，整点），为 null 表示不限
+     * @return 行数
+     */
+    public long count(String deviceId, Long startTs, Long endTs) {
+        long startHour = startTs == null ? Long.MIN_VALUE : hourOf(startTs);
+        long endHour = endTs == null ? Long.MAX_VALUE : hourOf(endTs);
+        if (deviceId != null) {
+            DeviceBuckets buckets = devices.get(deviceId);
+            return buckets == null ? 0 : buckets.sum(startHour, endHour);
+        }
+        long total = 0;
+        for (DeviceBuckets buckets : devices.values()) {
+            total += buckets.sum(startHour, endHour);
+        }
+        return total;
+    }
+
+    /**
+     * 单个设备的小时桶
+     * 数组随写入时间向两端扩容，写入与统计在设备级别加锁
+     */
+    private static final class DeviceBuckets {
+
+        private long baseHour;
+        private int[] counts;
+
+        synchronized void add(long hour, long delta) {
+            if (counts == null) {
+                baseHour = hour;
+                counts = new int[INITIAL_CAPACITY];
+            } else if (hour < baseHour) {
+                int shift = Math.toIntExact(baseHour - hour);
+                int[] grown = new int[Math.max(counts.length * 2, counts.length + shift)];
+                System.arraycopy(counts, 0, grown, shift, counts.length);
+                counts = grown;
+                baseHour = hour;
+            } else if (hour - baseHour >= counts.length) {
+                int required = Math.toIntExact(hour - baseHour + 1);
+                int[] grown = new int[Math.max(counts.length * 2, required)];
+                System.arraycopy(counts, 0, grown, 0, counts.length);
+                counts = grown;
+            }
+            counts[(int) (hour - baseHour)] += (int) delta;
+        }
+
+        synchronized long sum(long startHour, long endHour) {
+            if (counts == null) {
+                return 0;
+            }
+            long from = Math.max(startHour, baseHour);
+            long to = Math.min(endHour, baseHour + counts.length);
+            long total = 0;
+            for (long hour = from; hour < to; hour++) {
+                total += counts[(int) (hour - baseHour)];
+            }
+            return total;
+        }
+    }
+}
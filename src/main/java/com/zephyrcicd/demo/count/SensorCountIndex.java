@@ -0,0 +1,191 @@
+package com.zephyrcicd.demo.count;
+
+import com.zephyrcicd.demo.bootstrap.SchemaBootstrap;
+import com.zephyrcicd.demo.entity.SensorData;
+import com.zephyrcicd.demo.ingest.SensorDataWriteListener;
+import com.zephyrcicd.demo.ingest.SensorDataWriter;
+import com.zephyrcicd.demo.shard.ShardedSensorRouter;
+import com.zephyrcicd.demo.workload.WorkloadBulkheads;
+import com.zephyrcicd.tdengineorm.template.TdTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 由写入路径增量维护的计数索引
+ * <p>
+ * 启动时按 device_id 分区、1h 窗口从数据库回填，之后由 {@link SensorDataWriter} 的写入回调累加。
+ * 回填不暂停写入：回填只统计截止时间之前的数据，回填期间到达的写入中时间戳不早于截止时间的
+ * 同时计入新索引，回填完成后整体替换。
+ * 回填前先确保超级表存在（LAZY 模式下新库尚未建表）；回填失败时索引标记为未就绪并回退到数据库查询，
+ * 之后的写入会定期触发重试。
+ * <p>
+ * 索引只用于给出总数，以下情况会与数据库不一致，对此敏感时可调用 {@link #rebuild()} 重新回填：
+ * 绕过 {@link SensorDataWriter} 的写入不会被统计；同一子表重复时间戳的写入在 TDengine 中是覆盖，
+ * 而索引会重复计数；回填期间写入的早于截止时间的历史数据可能漏计。
+ *
+ * @author zephyr
+ */
+@Component
+@ConditionalOnProperty(prefix = "demo.count-index", name = "enabled", havingValue = "true")
+public class SensorCountIndex implements SensorDataWriteListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SensorCountIndex.class);
+
+    /**
+     * 回填失败后的重试间隔（毫秒）
+     */
+    private static final long RETRY_INTERVAL_MS = 60_000;
+
+    private final SensorQueries queries;
+    private final Runnable ensureSchema;
+    private final AtomicLong nextRetry = new AtomicLong(Long.MAX_VALUE);
+
+    private volatile HourlyCountIndex index = new HourlyCountIndex();
+    private volatile Backfill backfill;
+    private volatile boolean ready;
+
+    public SensorCountIndex(TdTemplate tdTemplate, WorkloadBulkheads bulkheads, SchemaBootstrap schemaBootstrap,
+                            ObjectProvider<ShardedSensorRouter> routerProvider) {
+        this(SensorQueries.of(tdTemplate, bulkheads, routerProvider.getIfAvailable()),
+                () -> schemaBootstrap.ensure(SensorData.class));
+    }
+
+    SensorCountIndex(SensorQueries queries, Runnable ensureSchema) {
+        this.queries = queries;
+        this.ensureSchema = ensureSchema;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * 从数据库重新回填索引
+     * 回填期间旧索引继续提供计数，完成后整体替换
+     *
+     * @return 是否回填成功
+     */
+    public synchronized boolean rebuild() {
+        long startTime = System.nanoTime();
+        Backfill current = new Backfill(System.currentTimeMillis());
+        backfill = current;
+        try {
+            ensureSchema.run();
+            backfill(current.target, current.cutoff);
+        } catch (RuntimeException e) {
+            backfill = null;
+            // 旧索引不再可信（例如导入后重建失败），回退到数据库查询直到重试成功
+            ready = false;
+            log.warn("计数索引回填失败，count/page 将回退到数据库查询，{} 秒后随写入重试", RETRY_INTERVAL_MS / 1000, e);
+            nextRetry.set(System.currentTimeMillis() + RETRY_INTERVAL_MS);
+            return false;
+        }
+        // 先替换索引再结束回填：切换期间到达的写入至少计入新索引一次
+        index = current.target;
+        backfill = null;
+        ready = true;
+        nextRetry.set(Long.MAX_VALUE);
+        double elapsedMs = (System.nanoTime() - startTime) / 1_000_000.0;
+        log.info("计数索引回填完成，共 {} 条 [耗时: {}ms]", current.target.count(null, null, null), elapsedMs);
+        return true;
+    }
+
+    @Override
+    public void onWritten(List<SensorData> dataList) {
+        HourlyCountIndex current = index;
+        Backfill pending = backfill;
+        boolean toPending = pending != null && pending.target != current;
+        for (SensorData data : dataList) {
+            current.increment(data.getDeviceId(), data.getTs());
+            if (toPending && data.getTs() >= pending.cutoff) {
+                pending.target.increment(data.getDeviceId(), data.getTs());
+            }
+        }
+        if (!ready) {
+            retryRebuild();
+        }
+    }
+
+    /**
+     * 回填失败且到达重试时间时在后台重新回填，不阻塞写入线程
+     */
+    private void retryRebuild() {
+        long retryAt = nextRetry.get();
+        if (System.currentTimeMillis() >= retryAt && nextRetry.compareAndSet(retryAt, Long.MAX_VALUE)) {
+            CompletableFuture.runAsync(this::rebuild);
+        }
+    }
+
+    /**
+     * 查询条件能否由索引精确回答
+     *
+     * @param query 查询条件
+     * @return 索引已就绪且时间边界整点对齐
+     */
+    public boolean canAnswer(SensorCountQuery query) {
+        return ready && query.isHourAligned();
+    }
+
+    /**
+     * 由索引统计行数，调用前应先通过 {@link #canAnswer(SensorCountQuery)} 判断
+     *
+     * @param query 查询条件
+     * @return 行数
+     */
+    public long count(SensorCountQuery query) {
+        return index.count(query.getDeviceId(), query.getStartTs(), query.getEndTs());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void backfill(HourlyCountIndex target, long cutoff) {
+        for (Map<String, Object> row : queries.hourlyCounts(cutoff)) {
+            String deviceId = String.valueOf(row.get("device_id"));
+            long windowStart = toEpochMillis(row.get("window_start"));
+            long count = ((Number) row.get("c")).longValue();
+            target.add(deviceId, HourlyCountIndex.hourOf(windowStart), count);
+        }
+    }
+
+    private static long toEpochMillis(Object value) {
+        if (value instanceof Date) {
+            return ((Date) value).getTime();
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+        throw new IllegalStateException("无法解析窗口起始时间: " + value);
+    }
+
+    /**
+     * 进行中的回填：截止时间与正在构建的索引
+     */
+    private static final class Backfill {
+
+        private final long cutoff;
+        private final HourlyCountIndex target = new HourlyCountIndex();
+
+        private Backfill(long cutoff) {
+            this.cutoff = cutoff;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.zephyrcicd.demo.count;
+
+import com.zephyrcicd.demo.entity.SensorData;
+import com.zephyrcicd.tdengineorm.wrapper.TdQueryWrapper;
+import com.zephyrcicd.tdengineorm.wrapper.TdWrappers;
+
+/**
+ * 计数/分页查询条件
+ * 仅包含设备ID等值与时间范围，条件满足整点对齐时可直接由 {@link HourlyCountIndex} 回答
+ *
+ * @author zephyr
+ */
+public class SensorCountQuery {
+
+    /**
+     * 设备ID，为 null 表示整张超级表
+     */
+    private final String deviceId;
+
+    /**
+     * 起始时间（包含），为 null 表示不限
+     */
+    private final Long startTs;
+
+    /**
+     * 结束时间（不包含），为 null 表示不限
+     */
+    private final Long endTs;
+
+    public SensorCountQuery(String deviceId, Long startTs, Long endTs) {
+        this.deviceId = deviceId;
+        this.startTs = startTs;
+        this.endTs = endTs;
+    }
+
+    public static SensorCountQuery ofDevice(String deviceId) {
+        return new SensorCountQuery(deviceId, null, null);
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public Long getStartTs() {
+        return startTs;
+    }
+
+    public Long getEndTs() {
+        return endTs;
+    }
+
+    /**
+     * 时间边界是否都对齐到整点，对齐时计数可由小时桶精确得出
+     *
+     * @return 是否可由索引回答
+     */
+    public boolean isHourAligned() {
+        return (startTs == null || HourlyCountIndex.isAligned(startTs))
+                && (endTs == null || HourlyCountIndex.isAligned(endTs));
+    }
+
+    /**
+     * 转换为等价的查询条件，用于回退到数据库查询
+     *
+     * @return 查询条件（未指定查询列）
+     */
+    public TdQueryWrapper<SensorData> toWrapper() {
+        TdQueryWrapper<SensorData> wrapper = TdWrappers.queryWrapper(SensorData.class);
+        if (deviceId != null) {
+            wrapper.eq(SensorData::getDeviceId, deviceId);
+        }
+        if (startTs != null) {
+            wrapper.ge(SensorData::getTs, startTs);
+        }
+        if (endTs != null) {
+            // 时间戳精度为毫秒，le(end - 1) 等价于 lt(end)
+            wrapper.le(SensorData::getTs, endTs - 1);
+        }
+        return wrapper;
+    }
+}
@@ -0,0 +1,77 @@
+package com.zephyrcicd.demo.count;
+
+import com.zephyrcicd.demo.entity.SensorData;
+import com.zephyrcicd.demo.shard.ShardedSensorRouter;
+import com.zephyrcicd.demo.workload.WorkloadBulkheads;
+import com.zephyrcicd.tdengineorm.template.TdTemplate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 计数与分页查询
+ * 计数索引可用且条件整点对齐时直接由索引给出总数，否则回退到 {@link TdTemplate} 的 COUNT(*)
+ * 启用分片时经 {@link ShardedSensorRouter} 查询
+ *
+ * @author zephyr
+ */
+@Component
+public class SensorDataQueryService {
+
+    private final SensorQueries queries;
+    private final Supplier<SensorCountIndex> countIndexProvider;
+
+    public SensorDataQueryService(TdTemplate tdTemplate, WorkloadBulkheads bulkheads,
+                                  ObjectProvider<SensorCountIndex> countIndexProvider,
+                                  ObjectProvider<ShardedSensorRouter> routerProvider) {
+        this(SensorQueries.of(tdTemplate, bulkheads, routerProvider.getIfAvailable()),
+                countIndexProvider::getIfAvailable);
+    }
+
+    /**
+     * @param queries            数据库查询
+     * @param countIndexProvider 计数索引，未启用时返回 null
+     */
+    SensorDataQueryService(SensorQueries queries, Supplier<SensorCountIndex> countIndexProvider) {
+        this.queries = queries;
+        this.countIndexProvider = countIndexProvider;
+    }
+
+    /**
+     * 统计行数
+     *
+     * @param query 查询条件
+     * @return 行数
+     */
+    public long count(SensorCountQuery query) {
+        SensorCountIndex countIndex = countIndexProvider.get();
+        if (countIndex != null && countIndex.canAnswer(query)) {
+            return countIndex.count(query);
+        }
+        return queries.count(query);
+    }
+
+    /**
+     * 按时间倒序分页查询
+     * <p>
+     * 第一页由索引给出总数，数据按 ORDER BY ts DESC LIMIT pageSize 读取，省去 page() 中的 COUNT(*)。
+     * TdQueryWrapper 只提供 limit(n)，没有服务端偏移，其余页回退到 {@link TdTemplate#page}（服务端 LIMIT/OFFSET）。
+     * 索引与数据库不一致时（见 {@link SensorCountIndex}）只影响返回的总数，不影响返回的行。
+     *
+     * @param pageNo   页码（从1开始）
+     * @param pageSize 每页大小
+     * @param query    查询条件
+     * @return 分页结果
+     */
+    public CountedPage<SensorData> page(long pageNo, long pageSize, SensorCountQuery query) {
+        SensorCountIndex countIndex = countIndexProvider.get();
+        if (pageNo != 1 || countIndex == null || !countIndex.canAnswer(query)) {
+            return queries.page(pageNo, pageSize, query);
+        }
+        long total = countIndex.count(query);
+        List<SensorData> dataList = queries.latest(query, Math.toIntExact(pageSize));
+        return new CountedPage<>(total, pageNo, pageSize, dataList, true);
+    }
+}
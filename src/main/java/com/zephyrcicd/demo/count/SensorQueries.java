@@ -0,0 +1,64 @@
+package com.zephyrcicd.demo.count;
+
+import com.zephyrcicd.demo.entity.SensorData;
+import com.zephyrcicd.demo.shard.ShardedSensorRouter;
+import com.zephyrcicd.demo.workload.WorkloadBulkheads;
+import com.zephyrcicd.tdengineorm.template.TdTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 计数索引与分页查询访问数据库的方式
+ *
+ * @author zephyr
+ */
+interface SensorQueries {
+
+    /**
+     * 启用分片时经分片路由查询，否则直接使用 TdTemplate
+     *
+     * @param tdTemplate TdTemplate
+     * @param bulkheads  负载隔离
+     * @param router     分片路由，未启用时为 null
+     * @return 查询
+     */
+    static SensorQueries of(TdTemplate tdTemplate, WorkloadBulkheads bulkheads, ShardedSensorRouter router) {
+        return router != null ? new ShardedSensorQueries(router) : new TdTemplateSensorQueries(tdTemplate, bulkheads);
+    }
+
+    /**
+     * 数据库 COUNT(*)
+     *
+     * @param query 查询条件
+     * @return 行数
+     */
+    long count(SensorCountQuery query);
+
+    /**
+     * 按时间倒序读取最新的若干行
+     *
+     * @param query 查询条件
+     * @param limit 最多读取的行数
+     * @return 数据列表
+     */
+    List<SensorData> latest(SensorCountQuery query, int limit);
+
+    /**
+     * 按时间倒序分页，总数由数据库统计
+     *
+     * @param pageNo   页码（从1开始）
+     * @param pageSize 每页大小
+     * @param query    查询条件
+     * @return 分页结果
+     */
+    CountedPage<SensorData> page(long pageNo, long pageSize, SensorCountQuery query);
+
+    /**
+     * 按设备、1h 窗口统计截止时间之前的行数，用于回填计数索引
+     *
+     * @param cutoff 截止时间（不包含）
+     * @return 每行包含 device_id、window_start、c
+     */
+    List<Map<String, Object>> hourlyCounts(long cutoff);
+}
@@ -0,0 +1,81 @@
+package com.zephyrcicd.demo.count;
+
+import com.zephyrcicd.demo.entity.SensorData;
+import com.zephyrcicd.demo.shard.MergeFunction;
+import com.zephyrcicd.demo.shard.ShardedSensorRouter;
+import com.zephyrcicd.tdengineorm.dto.Page;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 经 {@link ShardedSensorRouter} 的查询
+ * 指定设备的查询只访问设备所属分片；其余查询分发到所有分片后合并
+ * <p>
+ * 跨分片分页没有服务端偏移可用：各分片按 ts 倒序取前 pageNo * pageSize 条，合并后截取当前页，
+ * 读取量随页码线性增长，深分页应改为按时间范围查询
+ *
+ * @author zephyr
+ */
+class ShardedSensorQueries implements SensorQueries {
+
+    private static final Comparator<SensorData> LATEST_FIRST =
+            Comparator.comparing(SensorData::getTs, Comparator.reverseOrder());
+
+    private final ShardedSensorRouter router;
+
+    ShardedSensorQueries(ShardedSensorRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    public long count(SensorCountQuery query) {
+        List<Map<String, Object>> rows = query.getDeviceId() != null
+                ? router.listAsMap(query.getDeviceId(), TdTemplateSensorQueries.countWrapper(query))
+                : router.scatterAggregate(() -> TdTemplateSensorQueries.countWrapper(query),
+                Collections.emptyList(), Collections.singletonMap("c", MergeFunction.SUM));
+        long count = 0;
+        for (Map<String, Object> row : rows) {
+            Object value = row.get("c");
+            count += value == null ? 0 : ((Number) value).longValue();
+        }
+        return count;
+    }
+
+    @Override
+    public List<SensorData> latest(SensorCountQuery query, int limit) {
+        if (query.getDeviceId() != null) {
+            return router.list(query.getDeviceId(), TdTemplateSensorQueries.latestWrapper(query).limit(limit));
+        }
+        return router.scatterList(() -> TdTemplateSensorQueries.latestWrapper(query).limit(limit),
+                LATEST_FIRST, limit);
+    }
+
+    @Override
+    public CountedPage<SensorData> page(long pageNo, long pageSize, SensorCountQuery query) {
+        if (query.getDeviceId() != null) {
+            Page<SensorData> page = router.page(query.getDeviceId(), pageNo, pageSize,
+                    TdTemplateSensorQueries.latestWrapper(query));
+            return new CountedPage<>(page.getTotal(), page.getPageNo(), page.getPageSize(), page.getDataList(),
+                    false);
+        }
+        long total = count(query);
+        long from = (pageNo - 1) * pageSize;
+        List<SensorData> dataList = from >= total ? Collections.emptyList()
+                : latest(query, Math.toIntExact(pageNo * pageSize));
+        dataList = dataList.size() > from
+                ? new ArrayList<>(dataList.subList(Math.toIntExact(from), dataList.size()))
+                : Collections.emptyList();
+        return new CountedPage<>(total, pageNo, pageSize, dataList, false);
+    }
+
+    @Override
+    public List<Map<String, Object>> hourlyCounts(long cutoff) {
+        return router.scatterAggregate(() -> TdTemplateSensorQueries.hourlyCountsWrapper(cutoff),
+                Arrays.asList("device_id", "window_start"), Collections.singletonMap("c", MergeFunction.SUM));
+    }
+}
@@ -0,0 +1,89 @@
+package com.zephyrcicd.demo.count;
+
+import com.zephyrcicd.demo.entity.SensorData;
+import com.zephyrcicd.demo.workload.WorkloadBulkheads;
+import com.zephyrcicd.demo.workload.WorkloadKind;
+import com.zephyrcicd.tdengineorm.dto.Page;
+import com.zephyrcicd.tdengineorm.enums.TdSelectFuncEnum;
+import com.zephyrcicd.tdengineorm.template.TdTemplate;
+import com.zephyrcicd.tdengineorm.wrapper.TdQueryWrapper;
+import com.zephyrcicd.tdengineorm.wrapper.TdWrappers;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于 {@link TdTemplate} 的查询，按负载类型进入隔离舱
+ *
+ * @author zephyr
+ */
+class TdTemplateSensorQueries implements SensorQueries {
+
+    private final TdTemplate tdTemplate;
+    private final WorkloadBulkheads bulkheads;
+
+    TdTemplateSensorQueries(TdTemplate tdTemplate, WorkloadBulkheads bulkheads) {
+        this.tdTemplate = tdTemplate;
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    public long count(SensorCountQuery query) {
+        Long count = bulkheads.execute(WorkloadKind.SCAN, () -> tdTemplate.count(query.toWrapper()));
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public List<SensorData> latest(SensorCountQuery query, int limit) {
+        TdQueryWrapper<SensorData> wrapper = latestWrapper(query).limit(limit);
+        return bulkheads.execute(kindOf(query), () -> tdTemplate.list(wrapper));
+    }
+
+    @Override
+    public CountedPage<SensorData> page(long pageNo, long pageSize, SensorCountQuery query) {
+        TdQueryWrapper<SensorData> wrapper = latestWrapper(query);
+        Page<SensorData> page = bulkheads.execute(WorkloadKind.SCAN,
+                () -> tdTemplate.page(pageNo, pageSize, wrapper));
+        return new CountedPage<>(page.getTotal(), page.getPageNo(), page.getPageSize(), page.getDataList(), false);
+    }
+
+    @Override
+    public List<Map<String, Object>> hourlyCounts(long cutoff) {
+        TdQueryWrapper<SensorData> wrapper = hourlyCountsWrapper(cutoff);
+        return bulkheads.execute(WorkloadKind.SCAN, () -> tdTemplate.listAsMap(wrapper));
+    }
+
+    /**
+     * 按时间倒序的明细查询
+     */
+    static TdQueryWrapper<SensorData> latestWrapper(SensorCountQuery query) {
+        return query.toWrapper()
+                .selectAll()
+                .orderByDesc(SensorData::getTs);
+    }
+
+    /**
+     * COUNT(*)，结果列为 c
+     */
+    static TdQueryWrapper<SensorData> countWrapper(SensorCountQuery query) {
+        return query.toWrapper()
+                .selectFunc(TdSelectFuncEnum.COUNT, "*", "c");
+    }
+
+    /**
+     * 按设备、1h 窗口统计截止时间之前的行数
+     */
+    static TdQueryWrapper<SensorData> hourlyCountsWrapper(long cutoff) {
+        return TdWrappers.queryWrapper(SensorData.class)
+                .select(SensorData::getDeviceId)
+                .select("_wstart as window_start")
+                .selectFunc(TdSelectFuncEnum.COUNT, "*", "c")
+                .le(SensorData::getTs, cutoff - 1)
+                .partitionBy(SensorData::getDeviceId)
+                .intervalWindow("1h");
+    }
+
+    static WorkloadKind kindOf(SensorCountQuery query) {
+        return query.getDeviceId() != null ? WorkloadKind.POINT_READ : WorkloadKind.SCAN;
+    }
+}
@@ -0,0 +1,22 @@
+package com.zephyrcicd.demo.ingest;
+
+import com.zephyrcicd.demo.entity.SensorData;
+
+import java.util.List;
+
+/**
+ * 写入监听器
+ * 在 {@link SensorDataWriter} 成功写入 TDengine 之后被回调
+ *
+ * @author zephyr
+ */
+public interface SensorDataWriteListener {
+
+    /**
+     * 数据写入成功后回调
+     * 回调运行在写入线程上，实现方应尽快返回，异常会被记录但不会影响写入结果
+     *
+     * @param dataList 本次成功写入的数据
+     */
+    void onWritten(List<SensorData> dataList);
+}
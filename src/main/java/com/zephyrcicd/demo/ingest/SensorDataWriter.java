@@ -0,0 +1,143 @@
+package com.zephyrcicd.demo.ingest;
+
+import com.zephyrcicd.demo.bootstrap.SchemaBootstrap;
+import com.zephyrcicd.demo.entity.SensorData;
+import com.zephyrcicd.demo.shard.ShardedSensorRouter;
+import com.zephyrcicd.demo.workload.WorkloadBulkheads;
+import com.zephyrcicd.demo.workload.WorkloadKind;
+import com.zephyrcicd.tdengineorm.strategy.DynamicNameStrategy;
+import com.zephyrcicd.tdengineorm.template.TdTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 传感器数据写入入口
+ * 统一封装 USING 语法写入，并在写入成功后通知 {@link SensorDataWriteListener}
+ * 写入前由 {@link SchemaBootstrap} 确保超级表存在（LAZY 模式下首次写入时建表）
+ * 启用分片（demo.sharding.enabled=true）时写入交给 {@link ShardedSensorRouter}，由其按设备路由并通知监听器
+ *
+ * @author zephyr
+ */
+@Component
+public class SensorDataWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(SensorDataWriter.class);
+
+    /**
+     * 默认子表名策略：sensor_ + 设备ID
+     */
+    public static final DynamicNameStrategy<SensorData> DEFAULT_STRATEGY = entity ->
+            subTableName(entity.getDeviceId());
+
+    private final TdTemplate tdTemplate;
+    private final WorkloadBulkheads bulkheads;
+    private final SchemaBootstrap schemaBootstrap;
+    private final ObjectProvider<SensorDataWriteListener> listenerProvider;
+    private final ObjectProvider<ShardedSensorRouter> routerProvider;
+    private volatile List<SensorDataWriteListener> listeners;
+
+    public SensorDataWriter(TdTemplate tdTemplate, WorkloadBulkheads bulkheads, SchemaBootstrap schemaBootstrap,
+                            ObjectProvider<SensorDataWriteListener> listenerProvider,
+                            ObjectProvider<ShardedSensorRouter> routerProvider) {
+        this.tdTemplate = tdTemplate;
+        this.bulkheads = bulkheads;
+        this.schemaBootstrap = schemaBootstrap;
+        this.listenerProvider = listenerProvider;
+        this.routerProvider = routerProvider;
+    }
+
+    /**
+     * 设备对应的子表名
+     *
+     * @param deviceId 设备ID
+     * @return 子表名
+     */
+    public static String subTableName(String deviceId) {
+        return "sensor_" + deviceId;
+    }
+
+    /**
+     * 插入单条数据（USING语法自动创建子表）
+     *
+     * @param data 传感器数据
+     */
+    public void insert(SensorData data) {
+        ShardedSensorRouter router = routerProvider.getIfAvailable();
+        if (router != null) {
+            router.batchInsert(Collections.singletonList(data));
+            return;
+        }
+        schemaBootstrap.ensure(SensorData.class);
+        bulkheads.run(WorkloadKind.WRITE, () -> tdTemplate.insertUsing(data, DEFAULT_STRATEGY));
+        notifyListeners(Collections.singletonList(data));
+    }
+
+    /**
+     * 批量插入数据（USING语法自动创建子表）
+     *
+     * @param dataList 传感器数据列表
+     */
+    public void batchInsert(List<SensorData> dataList) {
+        if (dataList == null || dataList.isEmpty()) {
+            return;
+        }
+        ShardedSensorRouter router = routerProvider.getIfAvailable();
+        if (router != null) {
+            router.batchInsert(dataList);
+            return;
+        }
+        schemaBootstrap.ensure(SensorData.class);
+        bulkheads.run(WorkloadKind.WRITE,
+                () -> tdTemplate.batchInsertUsing(SensorData.class, dataList, DEFAULT_STRATEGY));
+        notifyListeners(dataList);
+    }
+
+    /**
+     * 批量导入历史数据（USING语法自动创建子表）
+     * 与 {@link #batchInsert(List)} 相同但不通知写入监听器：历史数据不应触发实时告警，
+     * 计数索引由导入方在完成后统一重建
+     *
+     * @param dataList 传感器数据列表
+     */
+    public void bulkLoad(List<SensorData> dataList) {
+        if (dataList == null || dataList.isEmpty()) {
+            return;
+        }
+        ShardedSensorRouter router = routerProvider.getIfAvailable();
+        if (router != null) {
+            router.bulkLoad(dataList);
+            return;
+        }
+        schemaBootstrap.ensure(SensorData.class);
+        bulkheads.run(WorkloadKind.WRITE,
+                () -> tdTemplate.batchInsertUsing(SensorData.class, dataList, DEFAULT_STRATEGY));
+    }
+
+    private void notifyListeners(List<SensorData> dataList) {
+        for (SensorDataWriteListener listener : getListeners()) {
+            try {
+                listener.onWritten(dataList);
+            } catch (RuntimeException e) {
+                log.warn("写入监听器执行失败: {}", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    /**
+     * 监听器延迟解析，避免监听器反向依赖写入入口时产生循环依赖
+     */
+    private List<SensorDataWriteListener> getListeners() {
+        List<SensorDataWriteListener> result = listeners;
+        if (result == null) {
+            result = listenerProvider.orderedStream().collect(Collectors.toList());
+            listeners = result;
+        }
+        return result;
+    }
+}
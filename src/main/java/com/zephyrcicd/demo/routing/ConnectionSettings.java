@@ -0,0 +1,52 @@
+package com.zephyrcicd.demo.routing;
+
+/**
+ * 数据库连接参数
+ *
+ * @author zephyr
+ */
+public class ConnectionSettings {
+
+    /**
+     * JDBC URL
+     */
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    private String driverClassName;
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public String getDriverClassName() {
+        return driverClassName;
+    }
+
+    public void setDriverClassName(String driverClassName) {
+        this.driverClassName = driverClassName;
+    }
+}
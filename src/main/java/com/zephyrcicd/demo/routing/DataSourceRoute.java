@@ -0,0 +1,82 @@
+package com.zephyrcicd.demo.routing;
+
+import com.zephyrcicd.demo.workload.WorkloadKind;
+
+import java.util.function.Supplier;
+
+/**
+ * 当前线程的数据源路由
+ * <p>
+ * TdTemplate 只持有一个数据源，调用方在执行前声明分片与负载类型，
+ * {@link RoutingDataSourcePostProcessor} 包装后的数据源据此从对应的连接池取连接：
+ * 指定了分片时使用该分片集群的连接池，否则按负载类型选择。
+ * 路由可以嵌套，退出时恢复外层的路由
+ *
+ * @author zephyr
+ */
+public final class DataSourceRoute {
+
+    private static final ThreadLocal<WorkloadKind> WORKLOAD = new ThreadLocal<>();
+    private static final ThreadLocal<String> SHARD = new ThreadLocal<>();
+
+    private DataSourceRoute() {
+    }
+
+    /**
+     * 以指定负载类型执行
+     *
+     * @param kind   负载类型
+     * @param action 操作
+     * @param <T>    返回值类型
+     * @return 操作结果
+     */
+    public static <T> T withWorkload(WorkloadKind kind, Supplier<T> action) {
+        WorkloadKind previous = WORKLOAD.get();
+        WORKLOAD.set(kind);
+        try {
+            return action.get();
+        } finally {
+            restore(WORKLOAD, previous);
+        }
+    }
+
+    /**
+     * 在指定分片的集群上执行
+     *
+     * @param shard  分片名称
+     * @param action 操作
+     * @param <T>    返回值类型
+     * @return 操作结果
+     */
+    public static <T> T withShard(String shard, Supplier<T> action) {
+        String previous = SHARD.get();
+        SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            restore(SHARD, previous);
+        }
+    }
+
+    /**
+     * 当前线程的负载类型，未声明时返回 null
+     */
+    public static WorkloadKind currentWorkload() {
+        return WORKLOAD.get();
+    }
+
+    /**
+     * 当前线程的分片，未声明时返回 null
+     */
+    public static String currentShard() {
+        return SHARD.get();
+    }
+
+    private static <T> void restore(ThreadLocal<T> holder, T previous) {
+        if (previous == null) {
+            holder.remove();
+        } else {
+            holder.set(previous);
+        }
+    }
+}
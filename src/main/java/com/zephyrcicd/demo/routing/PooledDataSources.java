@@ -0,0 +1,111 @@
+package com.zephyrcicd.demo.routing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 创建与原数据源同类型的连接池
+ * <p>
+ * 连接池大小按常见连接池的属性名设置（HikariCP maximum-pool-size、Tomcat max-active、DBCP2 max-total），
+ * 连接池类型没有的属性会被忽略；其他连接池参数通过 properties 原样绑定
+ *
+ * @author zephyr
+ */
+public final class PooledDataSources {
+
+    private static final Logger log = LoggerFactory.getLogger(PooledDataSources.class);
+
+    private static final String[] MAX_SIZE_PROPERTIES = {"maximum-pool-size", "max-active", "max-total"};
+    private static final String[] MAX_SIZE_GETTERS = {"getMaximumPoolSize", "getMaxActive", "getMaxTotal"};
+
+    private PooledDataSources() {
+    }
+
+    /**
+     * 创建连接池
+     *
+     * @param type        连接池类型
+     * @param connection  连接参数
+     * @param name        连接池名称
+     * @param maxSize     最大连接数
+     * @param properties  其他连接池参数（属性名使用短横线格式）
+     * @return 连接池
+     */
+    public static DataSource create(Class<? extends DataSource> type, ConnectionSettings connection, String name,
+                                    int maxSize, Map<String, String> properties) {
+        DataSourceBuilder<? extends DataSource> builder = DataSourceBuilder.create(type.getClassLoader())
+                .type(type)
+                .url(connection.getUrl());
+        if (hasText(connection.getUsername())) {
+            builder.username(connection.getUsername());
+        }
+        if (hasText(connection.getPassword())) {
+            builder.password(connection.getPassword());
+        }
+        if (hasText(connection.getDriverClassName())) {
+            builder.driverClassName(connection.getDriverClassName());
+        }
+        DataSource dataSource = builder.build();
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("pool.pool-name", name);
+        for (String property : MAX_SIZE_PROPERTIES) {
+            values.put("pool." + property, maxSize);
+        }
+        properties.forEach((key, value) -> values.put("pool." + key, value));
+        new Binder(new MapConfigurationPropertySource(values)).bind("pool", Bindable.ofInstance(dataSource));
+        log.info("连接池 {} 已创建: {}, 最大连接数 {}", name, type.getSimpleName(), maxSize);
+        return dataSource;
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isEmpty();
+    }
+
+    /**
+     * 读取连接池的最大连接数
+     *
+     * @param dataSource 连接池
+     * @return 最大连接数，无法识别的连接池类型返回 0
+     */
+    public static int maxSize(DataSource dataSource) {
+        for (String getter : MAX_SIZE_GETTERS) {
+            try {
+                Method method = dataSource.getClass().getMethod(getter);
+                Object value = method.invoke(dataSource);
+                if (value instanceof Number && ((Number) value).intValue() > 0) {
+                    return ((Number) value).intValue();
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // 不是该类型的连接池，继续尝试下一个
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 关闭连接池，不可关闭的数据源忽略
+     *
+     * @param name       连接池名称
+     * @param dataSource 连接池
+     */
+    public static void close(String name, DataSource dataSource) {
+        if (!(dataSource instanceof AutoCloseable)) {
+            return;
+        }
+        try {
+            ((AutoCloseable) dataSource).close();
+        } catch (Exception e) {
+            log.warn("关闭连接池 {} 失败", name, e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.zephyrcicd.demo.routing;
+
+import com.zephyrcicd.demo.workload.WorkloadKind;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 按当前线程路由选择的连接池
+ * <p>
+ * 指定了分片时使用该分片的连接池（td-orm 数据源所在的分片使用原数据源，再按负载类型选择），
+ * 未配置连接池的分片直接报错，避免误写入其他集群
+ *
+ * @author zephyr
+ */
+public class RoutedDataSources {
+
+    private static final Logger log = LoggerFactory.getLogger(RoutedDataSources.class);
+
+    private final Map<WorkloadKind, DataSource> workloadPools = new EnumMap<>(WorkloadKind.class);
+    private final Map<String, DataSource> shardPools = new LinkedHashMap<>();
+    private String primaryShardName;
+
+    /**
+     * @param primaryShardName td-orm 数据源所在分片的名称
+     */
+    public void setPrimaryShardName(String primaryShardName) {
+        this.primaryShardName = primaryShardName;
+    }
+
+    /**
+     * 为负载类型指定独立的连接池
+     *
+     * @param kind       负载类型
+     * @param dataSource 连接池
+     */
+    public void putWorkloadPool(WorkloadKind kind, DataSource dataSource) {
+        workloadPools.put(kind, dataSource);
+    }
+
+    /**
+     * 为分片指定其集群的连接池
+     *
+     * @param shard      分片名称
+     * @param dataSource 连接池
+     */
+    public void putShardPool(String shard, DataSource dataSource) {
+        shardPools.put(shard, dataSource);
+    }
+
+    /**
+     * 分片是否可以路由：td-orm 数据源所在的分片或已配置连接池的分片
+     *
+     * @param shard 分片名称
+     * @return 是否可以路由
+     */
+    public boolean canRoute(String shard) {
+        return shard.equals(primaryShardName) || shardPools.containsKey(shard);
+    }
+
+    public boolean isEmpty() {
+        return workloadPools.isEmpty() && shardPools.isEmpty();
+    }
+
+    /**
+     * 当前线程应使用的连接池
+     *
+     * @return 连接池，返回 null 表示使用原数据源
+     */
+    public DataSource select() {
+        String shard = DataSourceRoute.currentShard();
+        if (shard != null && !shard.equals(primaryShardName)) {
+            DataSource pool = shardPools.get(shard);
+            if (pool == null) {
+                throw new IllegalStateException("分片 " + shard + " 未配置连接池");
+            }
+            return pool;
+        }
+        WorkloadKind kind = DataSourceRoute.currentWorkload();
+        return kind == null ? null : workloadPools.get(kind);
+    }
+
+    /**
+     * 关闭创建的连接池
+     */
+    public void close() {
+        for (Map.Entry<WorkloadKind, DataSource> entry : workloadPools.entrySet()) {
+            PooledDataSources.close(entry.getKey().name(), entry.getValue());
+        }
+        for (Map.Entry<String, DataSource> entry : shardPools.entrySet()) {
+            PooledDataSources.close(entry.getKey(), entry.getValue());
+        }
+        workloadPools.clear();
+        shardPools.clear();
+        log.debug("路由连接池已关闭");
+    }
+}
@@ -0,0 +1,33 @@
+package com.zephyrcicd.demo.routing;
+
+import com.zephyrcicd.demo.shard.ShardingProperties;
+import com.zephyrcicd.demo.workload.WorkloadProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * 数据源路由配置
+ *
+ * @author zephyr
+ */
+@Configuration
+@EnableConfigurationProperties({WorkloadProperties.class, ShardingProperties.class})
+public class RoutingConfiguration {
+
+    /**
+     * 后置处理器需要在其他 Bean 之前创建，声明为静态方法避免提前初始化配置类
+     */
+    @Bean
+    public static RoutingDataSourcePostProcessor routingDataSourcePostProcessor(WorkloadProperties workloadProperties,
+                                                                                ShardingProperties shardingProperties,
+                                                                                Environment environment) {
+        ConnectionSettings connection = new ConnectionSettings();
+        connection.setUrl(environment.getProperty("td-orm.url", ""));
+        connection.setUsername(environment.getProperty("td-orm.username", ""));
+        connection.setPassword(environment.getProperty("td-orm.password", ""));
+        connection.setDriverClassName(environment.getProperty("td-orm.driver-class-name", ""));
+        return new RoutingDataSourcePostProcessor(workloadProperties, connection, shardingProperties);
+    }
+}
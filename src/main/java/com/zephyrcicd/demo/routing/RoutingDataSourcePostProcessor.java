@@ -0,0 +1,131 @@
+package com.zephyrcicd.demo.routing;
+
+import com.zephyrcicd.demo.shard.ShardingProperties;
+import com.zephyrcicd.demo.workload.WorkloadKind;
+import com.zephyrcicd.demo.workload.WorkloadProperties;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * 为 td-orm 使用的数据源加上按分片与负载类型路由的连接池
+ * <p>
+ * 配置了 pool-size 的负载类型获得与原数据源同类型、同连接参数的独立连接池，
+ * 在 {@link com.zephyrcicd.demo.workload.WorkloadBulkheads} 内执行的调用从对应连接池取连接，
+ * 其余调用仍使用原数据源。启用分片时，demo.sharding.shards 中的每个集群获得一个同类型的连接池，
+ * 在 {@link DataSourceRoute#withShard} 内执行的调用从该集群取连接，因此所有集群共用同一个 TdTemplate。
+ * 包装使用基于类的代理，代理对象仍是原连接池类型。
+ * <p>
+ * 启动时检查各负载类型的并发上限与连接池大小，读负载可能占满写入所需连接时启动失败。
+ * 优先于其他数据源后置处理器执行，慢查询追踪包装在路由之外，路由到的连接同样被追踪
+ *
+ * @author zephyr
+ */
+public class RoutingDataSourcePostProcessor implements BeanPostProcessor, Ordered, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RoutingDataSourcePostProcessor.class);
+
+    private final WorkloadProperties workloadProperties;
+    private final ConnectionSettings primaryConnection;
+    private final ShardingProperties shardingProperties;
+    private final RoutedDataSources routes = new RoutedDataSources();
+    private volatile String routedBeanName;
+
+    /**
+     * @param workloadProperties 负载隔离配置
+     * @param primaryConnection  td-orm 数据源的连接参数，独立连接池使用相同参数
+     * @param shardingProperties 分片配置，未启用分片时不创建分片连接池
+     */
+    public RoutingDataSourcePostProcessor(WorkloadProperties workloadProperties, ConnectionSettings primaryConnection,
+                                          ShardingProperties shardingProperties) {
+        this.workloadProperties = workloadProperties;
+        this.primaryConnection = primaryConnection;
+        this.shardingProperties = shardingProperties;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource)) {
+            return bean;
+        }
+        if (routedBeanName != null) {
+            log.warn("数据源 {} 未加路由，路由只作用于第一个数据源 {}", beanName, routedBeanName);
+            return bean;
+        }
+        routedBeanName = beanName;
+        DataSource primary = (DataSource) bean;
+        int sharedPoolSize = workloadProperties.getSharedPoolSize() > 0
+                ? workloadProperties.getSharedPoolSize() : PooledDataSources.maxSize(primary);
+        if (sharedPoolSize <= 0) {
+            log.warn("无法识别数据源 {} 的连接池大小，跳过共用连接池的连接数检查，可通过 demo.workload.shared-pool-size 指定",
+                    beanName);
+        }
+        workloadProperties.checkConnections(sharedPoolSize);
+
+        for (WorkloadKind kind : WorkloadKind.values()) {
+            WorkloadProperties.Limits limits = workloadProperties.get(kind);
+            if (limits.getPoolSize() > 0) {
+                routes.putWorkloadPool(kind, PooledDataSources.create(primary.getClass(), primaryConnection,
+                        "td-orm-" + kind.name().toLowerCase(), limits.getPoolSize(), limits.getPoolProperties()));
+            }
+        }
+        if (shardingProperties.isEnabled()) {
+            routes.setPrimaryShardName(shardingProperties.getPrimaryShardName());
+            for (ShardingProperties.Shard shard : shardingProperties.getShards()) {
+                int poolSize = shard.getPoolSize() > 0 ? shard.getPoolSize() : workloadProperties.getTotalConcurrency();
+                workloadProperties.checkShardPool(shard.getName(), poolSize);
+                routes.putShardPool(shard.getName(), PooledDataSources.create(primary.getClass(), shard,
+                        "td-orm-shard-" + shard.getName(), poolSize, shard.getPoolProperties()));
+            }
+        }
+        if (routes.isEmpty()) {
+            return bean;
+        }
+        ProxyFactory factory = new ProxyFactory(bean);
+        factory.setProxyTargetClass(true);
+        factory.addAdvice(routingAdvice(routes));
+        log.info("数据源 {} 已按分片与负载类型路由连接池", beanName);
+        return factory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    /**
+     * getConnection 按当前线程路由到选中的连接池，未选中时与其他方法一样由原数据源处理
+     */
+    static MethodInterceptor routingAdvice(RoutedDataSources routes) {
+        return invocation -> {
+            if (!"getConnection".equals(invocation.getMethod().getName())) {
+                return invocation.proceed();
+            }
+            DataSource target = routes.select();
+            if (target == null) {
+                return invocation.proceed();
+            }
+            try {
+                return invocation.getMethod().invoke(target, invocation.getArguments());
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        };
+    }
+
+    public RoutedDataSources getRoutes() {
+        return routes;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public void destroy() {
+        routes.close();
+    }
+}
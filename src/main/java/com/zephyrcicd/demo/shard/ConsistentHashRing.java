@@ -0,0 +1,76 @@
+package com.zephyrcicd.demo.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 一致性哈希环
+ * 每个节点映射为若干虚拟节点，增删节点时只有约 1/N 的键需要迁移
+ *
+ * @param <T> 节点类型
+ * @author zephyr
+ */
+public class ConsistentHashRing<T> {
+
+    private final int virtualNodes;
+    private final TreeMap<Long, T> ring = new TreeMap<>();
+    private final List<T> nodes = new ArrayList<>();
+
+    /**
+     * @param virtualNodes 每个节点的虚拟节点数
+     * @param nodes        节点，按 toString() 计算位置，同名节点位置相同
+     */
+    public ConsistentHashRing(int virtualNodes, Collection<T> nodes) {
+        this.virtualNodes = virtualNodes;
+        for (T node : nodes) {
+            add(node);
+        }
+    }
+
+    private void add(T node) {
+        nodes.add(node);
+        for (int i = 0; i < virtualNodes; i++) {
+            ring.put(hash(node + "#" + i), node);
+        }
+    }
+
+    /**
+     * 定位键所属节点
+     *
+     * @param key 键（如设备ID）
+     * @return 节点
+     */
+    public T locate(String key) {
+        if (ring.isEmpty()) {
+            throw new IllegalStateException("哈希环中没有节点");
+        }
+        Map.Entry<Long, T> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    public List<T> getNodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    /**
+     * FNV-1a 64 位哈希 + murmur3 fmix64 打散
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
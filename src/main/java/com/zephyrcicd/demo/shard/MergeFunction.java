@@ -0,0 +1,51 @@
+package com.zephyrcicd.demo.shard;
+
+/**
+ * 跨分片合并聚合列的方式
+ * AVG 无法直接合并，应在各分片查询 SUM 与 COUNT，合并后再相除
+ *
+ * @author zephyr
+ */
+public enum MergeFunction {
+
+    /**
+     * 求和（COUNT、SUM）
+     */
+    SUM,
+
+    /**
+     * 最小值
+     */
+    MIN,
+
+    /**
+     * 最大值
+     */
+    MAX;
+
+    Object merge(Object left, Object right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        double a = ((Number) left).doubleValue();
+        double b = ((Number) right).doubleValue();
+        switch (this) {
+            case SUM:
+                if (isIntegral(left) && isIntegral(right)) {
+                    return ((Number) left).longValue() + ((Number) right).longValue();
+                }
+                return a + b;
+            case MIN:
+                return a <= b ? left : right;
+            default:
+                return a >= b ? left : right;
+        }
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+}
@@ -0,0 +1,69 @@
+package com.zephyrcicd.demo.shard;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 再平衡计划：哈希环变化后需要迁移的设备
+ *
+ * @author zephyr
+ */
+public class RebalancePlan {
+
+    private final List<Move> moves;
+    private final int deviceCount;
+
+    public RebalancePlan(List<Move> moves, int deviceCount) {
+        this.moves = Collections.unmodifiableList(moves);
+        this.deviceCount = deviceCount;
+    }
+
+    public List<Move> getMoves() {
+        return moves;
+    }
+
+    /**
+     * 参与计划的设备总数
+     */
+    public int getDeviceCount() {
+        return deviceCount;
+    }
+
+    @Override
+    public String toString() {
+        return "RebalancePlan{moves=" + moves.size() + "/" + deviceCount + "}";
+    }
+
+    /**
+     * 单个设备的迁移
+     */
+    public static class Move {
+
+        private final String deviceId;
+        private final String fromShard;
+        private final String toShard;
+
+        public Move(String deviceId, String fromShard, String toShard) {
+            this.deviceId = deviceId;
+            this.fromShard = fromShard;
+            this.toShard = toShard;
+        }
+
+        public String getDeviceId() {
+            return deviceId;
+        }
+
+        public String getFromShard() {
+            return fromShard;
+        }
+
+        public String getToShard() {
+            return toShard;
+        }
+
+        @Override
+        public String toString() {
+            return deviceId + ": " + fromShard + " -> " + toShard;
+        }
+    }
+}
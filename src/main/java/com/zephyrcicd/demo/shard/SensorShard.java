@@ -0,0 +1,88 @@
+package com.zephyrcicd.demo.shard;
+
+import com.zephyrcicd.demo.entity.SensorData;
+import com.zephyrcicd.demo.workload.WorkloadKind;
+import com.zephyrcicd.tdengineorm.dto.Page;
+import com.zephyrcicd.tdengineorm.wrapper.TdQueryWrapper;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分片：一个 TDengine 集群上的传感器数据访问
+ *
+ * @author zephyr
+ */
+public interface SensorShard {
+
+    /**
+     * 分片名称，同时决定其在哈希环上的位置
+     */
+    String getName();
+
+    /**
+     * 批量写入（USING语法自动创建子表）
+     *
+     * @param dataList 传感器数据
+     */
+    void batchInsert(List<SensorData> dataList);
+
+    /**
+     * 查询实体列表
+     *
+     * @param kind    负载类型：单设备查询为 POINT_READ，跨设备扫描为 SCAN
+     * @param wrapper 查询条件
+     * @return 数据列表
+     */
+    List<SensorData> list(WorkloadKind kind, TdQueryWrapper<SensorData> wrapper);
+
+    /**
+     * 查询结果映射列表（聚合、分组）
+     *
+     * @param kind    负载类型：单设备查询为 POINT_READ，跨设备扫描为 SCAN
+     * @param wrapper 查询条件
+     * @return 结果列表
+     */
+    List<Map<String, Object>> listAsMap(WorkloadKind kind, TdQueryWrapper<SensorData> wrapper);
+
+    /**
+     * 将查询限制在指定设备上：追加 device_id IN (...)，在 SQL 中位于 LIMIT 之前
+     *
+     * @param wrapper   查询条件
+     * @param deviceIds 设备ID
+     * @return 查询条件
+     */
+    default TdQueryWrapper<SensorData> restrictToDevices(TdQueryWrapper<SensorData> wrapper,
+                                                         Collection<String> deviceIds) {
+        return wrapper.in(SensorData::getDeviceId, deviceIds.toArray());
+    }
+
+    /**
+     * 分页查询，用于单设备查询（数据只在一个分片上）
+     *
+     * @param kind     负载类型
+     * @param pageNo   页码（从1开始）
+     * @param pageSize 每页大小
+     * @param wrapper  查询条件
+     * @return 分页结果
+     */
+    Page<SensorData> page(WorkloadKind kind, long pageNo, long pageSize, TdQueryWrapper<SensorData> wrapper);
+
+    /**
+     * 按时间升序读取单个设备的数据，用于再平衡时按 ts 游标复制
+     *
+     * @param deviceId 设备ID
+     * @param fromTs   起始时间（包含），为 null 表示从头开始
+     * @param limit    最多读取的行数
+     * @return 数据列表
+     */
+    List<SensorData> readDevice(String deviceId, Long fromTs, int limit);
+
+    /**
+     * 删除设备的子表，用于再平衡后清理已迁出的数据
+     *
+     * @param deviceId 设备ID
+     */
+    void dropDevice(String deviceId);
+}
@@ -0,0 +1,528 @@
+package com.zephyrcicd.demo.shard;
+
+import com.zephyrcicd.demo.entity.SensorData;
+import com.zephyrcicd.demo.ingest.SensorDataWriteListener;
+import com.zephyrcicd.demo.workload.WorkloadKind;
+import com.zephyrcicd.tdengineorm.dto.Page;
+import com.zephyrcicd.tdengineorm.enums.TdSelectFuncEnum;
+import com.zephyrcicd.tdengineorm.wrapper.TdQueryWrapper;
+import com.zephyrcicd.tdengineorm.wrapper.TdWrappers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 按设备分片的多集群路由
+ * <p>
+ * 设备ID（即子表）经一致性哈希映射到分片：单设备的写入与查询只访问一个分片，
+ * 超级表级别的查询（如 groupBy(location)）并行分发到所有分片后合并。
+ * <p>
+ * 增加分片时按 {@link #beginRebalance} → {@link #migrate} → {@link #completeRebalance} 的顺序进行：
+ * 迁移期间对需要迁移的设备双写新旧分片，读仍走旧分片；历史数据复制完成后切换哈希环。
+ * TDengine 同一子表相同时间戳写入是覆盖，双写与复制重叠的数据不会重复。
+ * <p>
+ * 当前环与目标环作为一个不可变状态整体替换；写入持有读锁，切换状态时持有写锁，
+ * 因此切换前按旧状态路由的写入都已完成，切换后不会再有写入落到已迁出的源子表，删除源子表不会被写入重建。
+ * <p>
+ * 分片上可能存在不归其所有的设备数据（迁移中已复制到目标分片、源子表未删除或删除失败），
+ * 跨分片查询在这类分片上追加 device_id IN (所属设备) 条件，只统计各分片所属设备的数据。
+ *
+ * @author zephyr
+ */
+public class ShardedSensorRouter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedSensorRouter.class);
+
+    private final Map<String, SensorShard> shards = new ConcurrentHashMap<>();
+    private final int virtualNodes;
+    private final ExecutorService executor;
+
+    private final ReadWriteLock gate = new ReentrantReadWriteLock();
+    private final Supplier<List<SensorDataWriteListener>> listenerSupplier;
+    private volatile List<SensorDataWriteListener> listeners;
+
+    private volatile RingState state;
+
+    /**
+     * @param shards           所有已知分片
+     * @param activeShardNames 参与哈希环的分片名称
+     * @param virtualNodes     每个分片的虚拟节点数
+     */
+    public ShardedSensorRouter(Collection<? extends SensorShard> shards, Collection<String> activeShardNames,
+                               int virtualNodes) {
+        this(shards, activeShardNames, virtualNodes, Collections::emptyList);
+    }
+
+    /**
+     * @param shards           所有已知分片
+     * @param activeShardNames 参与哈希环的分片名称
+     * @param virtualNodes     每个分片的虚拟节点数
+     * @param listenerSupplier 写入监听器，首次写入时解析
+     */
+    public ShardedSensorRouter(Collection<? extends SensorShard> shards, Collection<String> activeShardNames,
+                               int virtualNodes, Supplier<List<SensorDataWriteListener>> listenerSupplier) {
+        for (SensorShard shard : shards) {
+            registerShard(shard);
+        }
+        this.virtualNodes = virtualNodes;
+        this.listenerSupplier = listenerSupplier;
+        this.state = new RingState(newRing(activeShardNames), null, Collections.emptyMap());
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "shard-scatter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 注册分片（不加入哈希环，需通过再平衡加入）
+     *
+     * @param shard 分片
+     */
+    public void registerShard(SensorShard shard) {
+        shards.put(shard.getName(), shard);
+    }
+
+    /**
+     * 设备所属分片
+     *
+     * @param deviceId 设备ID
+     * @return 分片
+     */
+    public SensorShard shardFor(String deviceId) {
+        return shards.get(state.ring.locate(deviceId));
+    }
+
+    /**
+     * 批量写入，按设备分组后并行写入各分片，成功后通知写入监听器
+     *
+     * @param dataList 传感器数据
+     */
+    public void batchInsert(List<SensorData> dataList) {
+        if (dataList == null || dataList.isEmpty()) {
+            return;
+        }
+        bulkLoad(dataList);
+        notifyListeners(dataList);
+    }
+
+    /**
+     * 批量导入历史数据，与 {@link #batchInsert(List)} 相同但不通知写入监听器
+     *
+     * @param dataList 传感器数据
+     */
+    public void bulkLoad(List<SensorData> dataList) {
+        if (dataList == null || dataList.isEmpty()) {
+            return;
+        }
+        gate.readLock().lock();
+        try {
+            write(state, dataList);
+        } finally {
+            gate.readLock().unlock();
+        }
+    }
+
+    private void write(RingState current, List<SensorData> dataList) {
+        Map<String, List<SensorData>> groups = new LinkedHashMap<>();
+        for (SensorData data : dataList) {
+            String owner = current.ring.locate(data.getDeviceId());
+            groups.computeIfAbsent(owner, key -> new ArrayList<>()).add(data);
+            if (current.target != null) {
+                String newOwner = current.target.locate(data.getDeviceId());
+                if (!newOwner.equals(owner)) {
+                    groups.computeIfAbsent(newOwner, key -> new ArrayList<>()).add(data);
+                }
+            }
+        }
+        if (groups.size() == 1) {
+            Map.Entry<String, List<SensorData>> group = groups.entrySet().iterator().next();
+            shards.get(group.getKey()).batchInsert(group.getValue());
+            return;
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>(groups.size());
+        groups.forEach((shardName, group) -> futures.add(
+                CompletableFuture.runAsync(() -> shards.get(shardName).batchInsert(group), executor)));
+        join(futures);
+    }
+
+    /**
+     * 单设备查询，只访问设备所属分片
+     *
+     * @param deviceId 设备ID（wrapper 中应包含同一设备的条件）
+     * @param wrapper  查询条件
+     * @return 数据列表
+     */
+    public List<SensorData> list(String deviceId, TdQueryWrapper<SensorData> wrapper) {
+        return shardFor(deviceId).list(WorkloadKind.POINT_READ, wrapper);
+    }
+
+    /**
+     * 单设备聚合查询，只访问设备所属分片
+     *
+     * @param deviceId 设备ID（wrapper 中应包含同一设备的条件）
+     * @param wrapper  查询条件
+     * @return 结果列表
+     */
+    public List<Map<String, Object>> listAsMap(String deviceId, TdQueryWrapper<SensorData> wrapper) {
+        return shardFor(deviceId).listAsMap(WorkloadKind.POINT_READ, wrapper);
+    }
+
+    /**
+     * 单设备分页查询，只访问设备所属分片
+     *
+     * @param deviceId 设备ID（wrapper 中应包含同一设备的条件）
+     * @param pageNo   页码（从1开始）
+     * @param pageSize 每页大小
+     * @param wrapper  查询条件
+     * @return 分页结果
+     */
+    public Page<SensorData> page(String deviceId, long pageNo, long pageSize, TdQueryWrapper<SensorData> wrapper) {
+        return shardFor(deviceId).page(WorkloadKind.SCAN, pageNo, pageSize, wrapper);
+    }
+
+    /**
+     * 跨分片查询明细并合并
+     * 带 limit 的 TopN 查询，各分片按相同排序取 N 条，合并排序后再取 N 条；
+     * 存在不归其所有的设备数据的分片在 limit 之前按所属设备过滤，合并后的条数不会因过滤而不足
+     *
+     * @param query 查询条件工厂，每次调用返回新的查询条件
+     * @param order 合并后的排序，为 null 时按分片顺序拼接
+     * @param limit 合并后保留的条数，小于等于 0 表示不限制
+     * @return 数据列表
+     */
+    public List<SensorData> scatterList(Supplier<TdQueryWrapper<SensorData>> query, Comparator<SensorData> order,
+                                        int limit) {
+        RingState current = state;
+        List<SensorData> merged = new ArrayList<>();
+        for (Map.Entry<String, List<SensorData>> part : scatter(current.ring, shard -> {
+            TdQueryWrapper<SensorData> wrapper = ownedQuery(current, shard, query);
+            return wrapper == null ? Collections.<SensorData>emptyList() : shard.list(WorkloadKind.SCAN, wrapper);
+        }).entrySet()) {
+            for (SensorData data : part.getValue()) {
+                // 再平衡期间新出现的设备不在过滤集合中，按当前环再过滤一次
+                if (part.getKey().equals(current.ring.locate(data.getDeviceId()))) {
+                    merged.add(data);
+                }
+            }
+        }
+        if (order != null) {
+            merged.sort(order);
+        }
+        return limit > 0 && merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    /**
+     * 跨分片分组聚合并合并
+     * 例如按 location 分组的 COUNT(*) 与 SUM(temperature)：groupColumns 为 location，
+     * 两个聚合列都按 {@link MergeFunction#SUM} 合并，平均值由合并后的 SUM / COUNT 得出
+     * <p>
+     * 聚合结果无法按设备过滤，存在不归其所有的设备数据的分片会先查询其所属设备，
+     * 再在查询条件上追加 device_id IN (...) 后执行，因此每个分片需要独立的查询条件
+     *
+     * @param query        查询条件工厂，每次调用返回新的查询条件
+     * @param groupColumns 分组列
+     * @param merges       聚合列及合并方式，未列出的列取第一个分片的值
+     * @return 合并后的结果，顺序为各分组首次出现的顺序
+     */
+    public List<Map<String, Object>> scatterAggregate(Supplier<TdQueryWrapper<SensorData>> query,
+                                                      List<String> groupColumns, Map<String, MergeFunction> merges) {
+        RingState current = state;
+        Map<String, List<Map<String, Object>>> parts = scatter(current.ring, shard -> {
+            TdQueryWrapper<SensorData> wrapper = ownedQuery(current, shard, query);
+            return wrapper == null ? Collections.<Map<String, Object>>emptyList()
+                    : shard.listAsMap(WorkloadKind.SCAN, wrapper);
+        });
+        return mergeGroups(new ArrayList<>(parts.values()), groupColumns, merges);
+    }
+
+    /**
+     * 分片上的查询条件：没有不归其所有的设备时原样返回，否则追加 device_id IN (所属设备)
+     *
+     * @return 查询条件，分片上没有所属设备时返回 null
+     */
+    private TdQueryWrapper<SensorData> ownedQuery(RingState current, SensorShard shard,
+                                                  Supplier<TdQueryWrapper<SensorData>> query) {
+        if (current.strays.getOrDefault(shard.getName(), Collections.emptySet()).isEmpty()) {
+            return query.get();
+        }
+        List<String> owned = new ArrayList<>();
+        for (String deviceId : deviceIdsOn(shard)) {
+            if (shard.getName().equals(current.ring.locate(deviceId))) {
+                owned.add(deviceId);
+            }
+        }
+        return owned.isEmpty() ? null : shard.restrictToDevices(query.get(), owned);
+    }
+
+    /**
+     * 开始再平衡：设置目标哈希环，需要迁移的设备开始双写
+     *
+     * @param newActiveShardNames 再平衡后参与哈希环的分片
+     * @param deviceIds           所有设备ID，可由 {@link #listDeviceIds()} 获取
+     * @return 迁移计划
+     */
+    public synchronized RebalancePlan beginRebalance(Collection<String> newActiveShardNames,
+                                                     Collection<String> deviceIds) {
+        RingState current = state;
+        if (current.target != null) {
+            throw new IllegalStateException("已有进行中的再平衡");
+        }
+        ConsistentHashRing<String> target = newRing(newActiveShardNames);
+        List<RebalancePlan.Move> moves = new ArrayList<>();
+        Map<String, Set<String>> strays = copy(current.strays);
+        for (String deviceId : deviceIds) {
+            String from = current.ring.locate(deviceId);
+            String to = target.locate(deviceId);
+            if (!from.equals(to)) {
+                moves.add(new RebalancePlan.Move(deviceId, from, to));
+                strays.computeIfAbsent(to, key -> new LinkedHashSet<>()).add(deviceId);
+            }
+        }
+        // 等待按旧状态路由的写入完成，之后的写入才会双写，迁移不会漏掉切换前落在源分片的数据
+        swap(new RingState(current.ring, target, strays));
+        RebalancePlan plan = new RebalancePlan(moves, deviceIds.size());
+        log.info("开始再平衡: {} -> {}, {}", current.ring.getNodes(), target.getNodes(), plan);
+        return plan;
+    }
+
+    /**
+     * 复制需要迁移的设备的历史数据，按 ts 游标分批读取源分片并写入目标分片
+     *
+     * @param plan      迁移计划
+     * @param fetchSize 每批行数
+     */
+    public void migrate(RebalancePlan plan, int fetchSize) {
+        for (RebalancePlan.Move move : plan.getMoves()) {
+            SensorShard source = shards.get(move.getFromShard());
+            SensorShard target = shards.get(move.getToShard());
+            long rows = 0;
+            Long from = null;
+            while (true) {
+                List<SensorData> chunk = source.readDevice(move.getDeviceId(), from, fetchSize);
+                if (!chunk.isEmpty()) {
+                    target.batchInsert(chunk);
+                    rows += chunk.size();
+                    from = chunk.get(chunk.size() - 1).getTs() + 1;
+                }
+                if (chunk.size() < fetchSize) {
+                    break;
+                }
+            }
+            log.info("设备 {} 迁移完成: {} 条", move, rows);
+        }
+    }
+
+    /**
+     * 完成再平衡：切换到目标哈希环，可选删除源分片上已迁出的子表
+     * 切换时等待进行中的写入完成，删除源子表在切换之后进行
+     *
+     * @param plan       迁移计划
+     * @param dropSource 是否删除源分片上的子表
+     * @return 未删除（需要通过 {@link #dropLeftovers} 清理）的迁移
+     */
+    public synchronized List<RebalancePlan.Move> completeRebalance(RebalancePlan plan, boolean dropSource) {
+        RingState current = state;
+        if (current.target == null) {
+            throw new IllegalStateException("没有进行中的再平衡");
+        }
+        Map<String, Set<String>> strays = copy(current.strays);
+        for (RebalancePlan.Move move : plan.getMoves()) {
+            Set<String> copied = strays.get(move.getToShard());
+            if (copied != null) {
+                copied.remove(move.getDeviceId());
+            }
+            strays.computeIfAbsent(move.getFromShard(), key -> new LinkedHashSet<>()).add(move.getDeviceId());
+        }
+        swap(new RingState(current.target, null, strays));
+        List<RebalancePlan.Move> leftovers = dropSource ? dropLeftovers(plan.getMoves()) : plan.getMoves();
+        log.info("再平衡完成: 当前分片 {}, 待清理 {} 个子表", state.ring.getNodes(), leftovers.size());
+        return leftovers;
+    }
+
+    /**
+     * 删除源分片上已迁出的子表，删除成功的设备不再参与跨分片查询的过滤
+     *
+     * @param moves 已完成的迁移
+     * @return 删除失败的迁移
+     */
+    public synchronized List<RebalancePlan.Move> dropLeftovers(List<RebalancePlan.Move> moves) {
+        List<RebalancePlan.Move> failed = new ArrayList<>();
+        List<RebalancePlan.Move> dropped = new ArrayList<>();
+        for (RebalancePlan.Move move : moves) {
+            try {
+                shards.get(move.getFromShard()).dropDevice(move.getDeviceId());
+                dropped.add(move);
+            } catch (RuntimeException e) {
+                log.warn("删除源分片子表失败: {}", move, e);
+                failed.add(move);
+            }
+        }
+        RingState current = state;
+        Map<String, Set<String>> strays = copy(current.strays);
+        for (RebalancePlan.Move move : dropped) {
+            Set<String> devices = strays.get(move.getFromShard());
+            if (devices != null) {
+                devices.remove(move.getDeviceId());
+            }
+        }
+        // 只更新过滤集合，不影响写入路由，无需等待写入
+        state = new RingState(current.ring, current.target, strays);
+        return failed;
+    }
+
+    /**
+     * 各分片上的所有设备ID
+     */
+    public Set<String> listDeviceIds() {
+        Set<String> deviceIds = new LinkedHashSet<>();
+        for (List<String> part : scatter(state.ring, this::deviceIdsOn).values()) {
+            deviceIds.addAll(part);
+        }
+        return deviceIds;
+    }
+
+    public List<String> getActiveShardNames() {
+        return state.ring.getNodes();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    static List<Map<String, Object>> mergeGroups(List<List<Map<String, Object>>> parts, List<String> groupColumns,
+                                                 Map<String, MergeFunction> merges) {
+        Map<List<Object>, Map<String, Object>> groups = new LinkedHashMap<>();
+        for (List<Map<String, Object>> part : parts) {
+            for (Map<String, Object> row : part) {
+                List<Object> key = groupColumns.stream().map(row::get).collect(Collectors.toList());
+                Map<String, Object> merged = groups.get(key);
+                if (merged == null) {
+                    groups.put(key, new LinkedHashMap<>(row));
+                    continue;
+                }
+                merges.forEach((column, function) ->
+                        merged.put(column, function.merge(merged.get(column), row.get(column))));
+            }
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    private List<String> deviceIdsOn(SensorShard shard) {
+        TdQueryWrapper<SensorData> wrapper = TdWrappers.queryWrapper(SensorData.class)
+                .select(SensorData::getDeviceId)
+                .selectFunc(TdSelectFuncEnum.COUNT, "*", "c")
+                .groupBy(SensorData::getDeviceId);
+        List<String> deviceIds = new ArrayList<>();
+        for (Map<String, Object> row : shard.listAsMap(WorkloadKind.SCAN, wrapper)) {
+            deviceIds.add(String.valueOf(row.get("device_id")));
+        }
+        return deviceIds;
+    }
+
+    private void notifyListeners(List<SensorData> dataList) {
+        List<SensorDataWriteListener> result = listeners;
+        if (result == null) {
+            result = listenerSupplier.get();
+            listeners = result;
+        }
+        for (SensorDataWriteListener listener : result) {
+            try {
+                listener.onWritten(dataList);
+            } catch (RuntimeException e) {
+                log.warn("写入监听器执行失败: {}", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    /**
+     * 在写锁内替换状态：等待持有旧状态的写入完成
+     */
+    private void swap(RingState next) {
+        gate.writeLock().lock();
+        try {
+            state = next;
+        } finally {
+            gate.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 并行访问环上的所有分片，结果按分片名称返回
+     */
+    private <R> Map<String, R> scatter(ConsistentHashRing<String> ring, Function<SensorShard, R> call) {
+        Map<String, CompletableFuture<R>> futures = new LinkedHashMap<>();
+        for (String name : ring.getNodes()) {
+            SensorShard shard = shards.get(name);
+            futures.put(name, CompletableFuture.supplyAsync(() -> call.apply(shard), executor));
+        }
+        join(new ArrayList<>(futures.values()));
+        Map<String, R> results = new LinkedHashMap<>();
+        futures.forEach((name, future) -> results.put(name, future.join()));
+        return results;
+    }
+
+    private static Map<String, Set<String>> copy(Map<String, Set<String>> strays) {
+        Map<String, Set<String>> result = new HashMap<>();
+        strays.forEach((shard, devices) -> result.put(shard, new LinkedHashSet<>(devices)));
+        return result;
+    }
+
+    private ConsistentHashRing<String> newRing(Collection<String> shardNames) {
+        for (String name : shardNames) {
+            if (!shards.containsKey(name)) {
+                throw new IllegalArgumentException("未注册的分片: " + name);
+            }
+        }
+        return new ConsistentHashRing<>(virtualNodes, shardNames);
+    }
+
+    private static void join(List<? extends CompletableFuture<?>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 路由状态：当前环、目标环（无再平衡时为 null），以及各分片上不归其所有的设备
+     */
+    private static final class RingState {
+
+        private final ConsistentHashRing<String> ring;
+        private final ConsistentHashRing<String> target;
+        private final Map<String, Set<String>> strays;
+
+        RingState(ConsistentHashRing<String> ring, ConsistentHashRing<String> target,
+                  Map<String, Set<String>> strays) {
+            this.ring = ring;
+            this.target = target;
+            this.strays = strays;
+        }
+    }
+}
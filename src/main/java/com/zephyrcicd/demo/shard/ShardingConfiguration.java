@@ -0,0 +1,102 @@
+package com.zephyrcicd.demo.shard;
+
+import com.zephyrcicd.demo.bootstrap.SchemaBootstrap;
+import com.zephyrcicd.demo.bootstrap.SchemaBootstrapMode;
+import com.zephyrcicd.demo.bootstrap.SchemaFingerprintStore;
+import com.zephyrcicd.demo.bootstrap.SchemaProperties;
+import com.zephyrcicd.demo.ingest.SensorDataWriteListener;
+import com.zephyrcicd.demo.routing.RoutingDataSourcePostProcessor;
+import com.zephyrcicd.demo.util.JdbcUrls;
+import com.zephyrcicd.demo.workload.WorkloadBulkheads;
+import com.zephyrcicd.tdengineorm.template.TdTemplate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 分片路由配置
+ * <p>
+ * td-orm 数据源所在的集群与 demo.sharding.shards 中的每个集群各构成一个 {@link TdTemplateShard}，
+ * 共用同一个 TdTemplate，连接由 {@link RoutingDataSourcePostProcessor} 按分片路由
+ *
+ * @author zephyr
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@ConditionalOnProperty(prefix = "demo.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public ShardedSensorRouter shardedSensorRouter(TdTemplate tdTemplate, DataSource dataSource,
+                                                   ObjectProvider<DataSource> dataSourceProvider,
+                                                   SchemaBootstrap schemaBootstrap, SchemaProperties schemaProperties,
+                                                   WorkloadBulkheads workloadBulkheads,
+                                                   RoutingDataSourcePostProcessor routing,
+                                                   ObjectProvider<SensorShard> extraShards,
+                                                   ShardingProperties properties,
+                                                   ObjectProvider<SensorDataWriteListener> listenerProvider) {
+        Consumer<String> ddlExecutor = sql -> execute(dataSource, sql);
+        List<SensorShard> shards = new ArrayList<>();
+        shards.add(new TdTemplateShard(properties.getPrimaryShardName(), tdTemplate, schemaBootstrap,
+                workloadBulkheads, ddlExecutor));
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            if (shard.getName() == null || !routing.getRoutes().canRoute(shard.getName())) {
+                throw new IllegalStateException("分片 " + shard.getName() + " 没有可路由的连接池，请检查分片名称与 td-orm 数据源");
+            }
+            shards.add(new TdTemplateShard(shard.getName(), tdTemplate,
+                    shardSchemaBootstrap(tdTemplate, dataSourceProvider, schemaProperties, shard), workloadBulkheads,
+                    ddlExecutor));
+        }
+        extraShards.orderedStream().forEach(shards::add);
+
+        Set<String> names = new LinkedHashSet<>();
+        for (SensorShard shard : shards) {
+            if (!names.add(shard.getName())) {
+                throw new IllegalStateException("分片名称重复: " + shard.getName());
+            }
+        }
+        List<String> activeShards = properties.getActiveShards().isEmpty()
+                ? new ArrayList<>(names) : properties.getActiveShards();
+        return new ShardedSensorRouter(shards, activeShards, properties.getVirtualNodes(),
+                () -> listenerProvider.orderedStream().collect(Collectors.toList()));
+    }
+
+    /**
+     * 分片集群的表结构初始化：首次写入该分片时检查，指纹缓存与 td-orm 集群分开记录
+     */
+    private static SchemaBootstrap shardSchemaBootstrap(TdTemplate tdTemplate,
+                                                        ObjectProvider<DataSource> dataSourceProvider,
+                                                        SchemaProperties schemaProperties,
+                                                        ShardingProperties.Shard shard) {
+        SchemaFingerprintStore store = schemaProperties.getFingerprintFile().isEmpty() ? null
+                : new SchemaFingerprintStore(Paths.get(schemaProperties.getFingerprintFile()),
+                JdbcUrls.targetId(shard.getUrl()));
+        SchemaBootstrapMode mode = schemaProperties.getMode() == SchemaBootstrapMode.NONE
+                ? SchemaBootstrapMode.NONE : SchemaBootstrapMode.LAZY;
+        return new SchemaBootstrap(tdTemplate, dataSourceProvider, store, mode,
+                schemaProperties.getEntities(), schemaProperties.getAcknowledgedFingerprints());
+    }
+
+    private static void execute(DataSource dataSource, String sql) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            throw new IllegalStateException("执行失败: " + sql, e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.zephyrcicd.demo.shard;
+
+import com.zephyrcicd.demo.routing.ConnectionSettings;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分片配置
+ * td-orm 数据源所在的集群作为名为 primary-shard-name 的分片，其他集群在 shards 中配置连接参数；
+ * 也可以声明 {@link SensorShard} 类型的 Bean 追加分片
+ *
+ * @author zephyr
+ */
+@ConfigurationProperties(prefix = "demo.sharding")
+public class ShardingProperties {
+
+    /**
+     * 是否启用分片路由
+     */
+    private boolean enabled = false;
+
+    /**
+     * 每个分片的虚拟节点数
+     */
+    private int virtualNodes = 160;
+
+    /**
+     * 参与哈希环的分片名称，为空时使用所有已声明的分片
+     */
+    private List<String> activeShards = new ArrayList<>();
+
+    /**
+     * td-orm 数据源所在分片的名称
+     */
+    private String primaryShardName = "primary";
+
+    /**
+     * 其他集群
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    public void setVirtualNodes(int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+
+    public List<String> getActiveShards() {
+        return activeShards;
+    }
+
+    public void setActiveShards(List<String> activeShards) {
+        this.activeShards = activeShards;
+    }
+
+    public String getPrimaryShardName() {
+        return primaryShardName;
+    }
+
+    public void setPrimaryShardName(String primaryShardName) {
+        this.primaryShardName = primaryShardName;
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<Shard> shards) {
+        this.shards = shards;
+    }
+
+    /**
+     * 分片集群
+     */
+    public static class Shard extends ConnectionSettings {
+
+        /**
+         * 分片名称，同时决定其在哈希环上的位置
+         */
+        private String name;
+
+        /**
+         * 连接池大小，小于等于 0 时取各负载类型并发上限之和
+         */
+        private int poolSize;
+
+        /**
+         * 连接池的其他参数，按连接池类型的属性名（短横线格式）绑定
+         */
+        private Map<String, String> poolProperties = new LinkedHashMap<>();
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public Map<String, String> getPoolProperties() {
+            return poolProperties;
+        }
+
+        public void setPoolProperties(Map<String, String> poolProperties) {
+            this.poolProperties = poolProperties;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.zephyrcicd.demo.shard;
+
+import com.zephyrcicd.demo.bootstrap.SchemaBootstrap;
+import com.zephyrcicd.demo.entity.SensorData;
+import com.zephyrcicd.demo.ingest.SensorDataWriter;
+import com.zephyrcicd.demo.routing.DataSourceRoute;
+import com.zephyrcicd.demo.workload.WorkloadBulkheads;
+import com.zephyrcicd.demo.workload.WorkloadKind;
+import com.zephyrcicd.tdengineorm.dto.Page;
+import com.zephyrcicd.tdengineorm.template.TdTemplate;
+import com.zephyrcicd.tdengineorm.wrapper.TdQueryWrapper;
+import com.zephyrcicd.tdengineorm.wrapper.TdWrappers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 基于 {@link TdTemplate} 的分片，调用按负载类型进入隔离舱
+ * <p>
+ * 所有集群共用同一个 TdTemplate，调用在 {@link DataSourceRoute#withShard} 内执行，
+ * 由 {@link com.zephyrcicd.demo.routing.RoutingDataSourcePostProcessor} 从该集群的连接池取连接。
+ * 每个集群的超级表由各自的 {@link SchemaBootstrap} 检查，首次访问该分片时确保存在
+ * <p>
+ * TdTemplate 不提供删表操作，DDL 由构造时传入的执行器完成（同样在该分片的路由内执行）
+ *
+ * @author zephyr
+ */
+public class TdTemplateShard implements SensorShard {
+
+    private final String name;
+    private final TdTemplate tdTemplate;
+    private final SchemaBootstrap schemaBootstrap;
+    private final WorkloadBulkheads bulkheads;
+    private final Consumer<String> ddlExecutor;
+
+    /**
+     * @param name            分片名称，与数据源路由中的分片名称一致
+     * @param tdTemplate      TdTemplate（经路由数据源访问各集群）
+     * @param schemaBootstrap 该集群的表结构初始化
+     * @param bulkheads       负载隔离
+     * @param ddlExecutor     DDL 执行器，为 null 时不支持 {@link #dropDevice(String)}
+     */
+    public TdTemplateShard(String name, TdTemplate tdTemplate, SchemaBootstrap schemaBootstrap,
+                           WorkloadBulkheads bulkheads, Consumer<String> ddlExecutor) {
+        this.name = name;
+        this.tdTemplate = tdTemplate;
+        this.schemaBootstrap = schemaBootstrap;
+        this.bulkheads = bulkheads;
+        this.ddlExecutor = ddlExecutor;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void batchInsert(List<SensorData> dataList) {
+        onShard(() -> {
+            bulkheads.run(WorkloadKind.WRITE,
+                    () -> tdTemplate.batchInsertUsing(SensorData.class, dataList, SensorDataWriter.DEFAULT_STRATEGY));
+            return null;
+        });
+    }
+
+    @Override
+    public List<SensorData> list(WorkloadKind kind, TdQueryWrapper<SensorData> wrapper) {
+        return onShard(() -> bulkheads.execute(kind, () -> tdTemplate.list(wrapper)));
+    }
+
+    @Override
+    public List<Map<String, Object>> listAsMap(WorkloadKind kind, TdQueryWrapper<SensorData> wrapper) {
+        return onShard(() -> bulkheads.execute(kind, () -> tdTemplate.listAsMap(wrapper)));
+    }
+
+    @Override
+    public Page<SensorData> page(WorkloadKind kind, long pageNo, long pageSize, TdQueryWrapper<SensorData> wrapper) {
+        return onShard(() -> bulkheads.execute(kind, () -> tdTemplate.page(pageNo, pageSize, wrapper)));
+    }
+
+    @Override
+    public List<SensorData> readDevice(String deviceId, Long fromTs, int limit) {
+        TdQueryWrapper<SensorData> wrapper = TdWrappers.queryWrapper(SensorData.class)
+                .selectAll()
+                .eq(SensorData::getDeviceId, deviceId);
+        if (fromTs != null) {
+            wrapper.ge(SensorData::getTs, fromTs);
+        }
+        wrapper.orderByAsc(SensorData::getTs).limit(limit);
+        return list(WorkloadKind.POINT_READ, wrapper);
+    }
+
+    @Override
+    public void dropDevice(String deviceId) {
+        if (ddlExecutor == null) {
+            throw new UnsupportedOperationException("分片 " + name + " 未配置 DDL 执行器");
+        }
+        onShard(() -> {
+            ddlExecutor.accept("DROP TABLE IF EXISTS " + SensorDataWriter.subTableName(deviceId));
+            return null;
+        });
+    }
+
+    /**
+     * 在该分片的路由内执行，先确保超级表存在：未写入过的分片参与跨分片查询时同样需要超级表
+     */
+    private <T> T onShard(Supplier<T> action) {
+        return DataSourceRoute.withShard(name, () -> {
+            schemaBootstrap.ensure(SensorData.class);
+            return action.get();
+        });
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
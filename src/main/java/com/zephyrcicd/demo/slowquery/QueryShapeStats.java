@@ -0,0 +1,57 @@
+package com.zephyrcicd.demo.slowquery;
+
+/**
+ * 同一形态慢查询的累计统计
+ * 反复出现且总耗时高的形态，通常是需要改写、预聚合或调整分区/窗口的查询
+ *
+ * @author zephyr
+ */
+public class QueryShapeStats {
+
+    private final String shape;
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+    private long maxRows;
+
+    public QueryShapeStats(String shape) {
+        this.shape = shape;
+    }
+
+    synchronized void add(SlowQueryRecord record) {
+        count++;
+        totalNanos += record.getTotalNanos();
+        maxNanos = Math.max(maxNanos, record.getTotalNanos());
+        maxRows = Math.max(maxRows, record.getRowCount());
+    }
+
+    public String getShape() {
+        return shape;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public synchronized long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public synchronized long getMaxRows() {
+        return maxRows;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "count=" + count
+                + " total=" + SlowQueryRecord.millis(totalNanos)
+                + "ms avg=" + SlowQueryRecord.millis(count == 0 ? 0 : totalNanos / count)
+                + "ms max=" + SlowQueryRecord.millis(maxNanos)
+                + "ms maxRows=" + maxRows
+                + "\n" + shape;
+    }
+}
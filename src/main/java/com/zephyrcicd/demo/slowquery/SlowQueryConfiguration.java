@@ -0,0 +1,33 @@
+package com.zephyrcicd.demo.slowquery;
+
+import com.zephyrcicd.demo.workload.WorkloadBulkheads;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 慢查询日志配置
+ *
+ * @author zephyr
+ */
+@Configuration
+@EnableConfigurationProperties(SlowQueryProperties.class)
+@ConditionalOnProperty(prefix = "demo.slow-query", name = "enabled", havingValue = "true")
+public class SlowQueryConfiguration {
+
+    /**
+     * 后置处理器需要在其他 Bean 之前创建，声明为静态方法避免提前初始化配置类
+     */
+    @Bean
+    public static TracingDataSourcePostProcessor tracingDataSourcePostProcessor(
+            ObjectProvider<SlowQueryLog> logProvider, SlowQueryProperties properties) {
+        return new TracingDataSourcePostProcessor(logProvider, properties.getDataSourceBeanNames());
+    }
+
+    @Bean(destroyMethod = "close")
+    public SlowQueryLog slowQueryLog(SlowQueryProperties properties, WorkloadBulkheads workloadBulkheads) {
+        return new SlowQueryLog(properties, workloadBulkheads);
+    }
+}
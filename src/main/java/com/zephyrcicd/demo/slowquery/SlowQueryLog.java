@@ -0,0 +1,273 @@
+package com.zephyrcicd.demo.slowquery;
+
+import com.zephyrcicd.demo.workload.WorkloadBulkheads;
+import com.zephyrcicd.demo.workload.WorkloadKind;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 慢查询日志
+ * <p>
+ * 超过阈值的执行保存在固定容量的环形缓冲中（满时丢弃最旧的记录），并按查询形态累计统计。
+ * 开启执行计划采集时，对抽样到的慢 SELECT 在单独的线程上以原始数据源执行 EXPLAIN [ANALYZE]，
+ * 采集队列已满时直接放弃，不会拖慢业务查询。EXPLAIN 在 SCAN 隔离舱内执行，与其他扫描共用并发上限。
+ *
+ * @author zephyr
+ */
+public class SlowQueryLog implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?:[eE][-+]?\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final long thresholdNanos;
+    private final int capacity;
+    private final int maxShapes;
+    private final double explainSampleRate;
+    private final boolean explainAnalyze;
+    private final Path dumpFile;
+    private final WorkloadBulkheads bulkheads;
+
+    private final Deque<SlowQueryRecord> ring;
+    private final Map<String, QueryShapeStats> shapes = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor explainExecutor;
+
+    public SlowQueryLog(SlowQueryProperties properties) {
+        this(properties, null);
+    }
+
+    /**
+     * @param properties 配置
+     * @param bulkheads  负载隔离，为 null 时 EXPLAIN 不受隔离舱限制
+     */
+    public SlowQueryLog(SlowQueryProperties properties, WorkloadBulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(properties.getThresholdMs());
+        this.capacity = properties.getCapacity();
+        this.maxShapes = properties.getMaxShapes();
+        this.explainSampleRate = properties.getExplainSampleRate();
+        this.explainAnalyze = properties.isExplainAnalyze();
+        this.dumpFile = properties.getDumpFile().isEmpty()
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "td-orm-demo", "slow-query.log")
+                : Paths.get(properties.getDumpFile());
+        this.ring = new ArrayDeque<>(capacity);
+        if (properties.isExplain()) {
+            this.explainExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(properties.getExplainQueueSize()), runnable -> {
+                Thread thread = new Thread(runnable, "slow-query-explain");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+        } else {
+            this.explainExecutor = null;
+        }
+    }
+
+    /**
+     * 是否达到慢查询阈值
+     *
+     * @param totalNanos 总耗时（纳秒）
+     * @return 是否记录
+     */
+    public boolean isSlow(long totalNanos) {
+        return totalNanos >= thresholdNanos;
+    }
+
+    /**
+     * 记录一次慢查询
+     *
+     * @param record        慢查询记录
+     * @param parameters    原始参数值，用于采集执行计划时重新绑定
+     * @param explainSource 执行 EXPLAIN 使用的数据源（未经追踪包装），为 null 时不采集
+     */
+    public void record(SlowQueryRecord record, List<Object> parameters, DataSource explainSource) {
+        synchronized (ring) {
+            if (ring.size() >= capacity) {
+                ring.pollFirst();
+            }
+            ring.addLast(record);
+        }
+        QueryShapeStats stats = shapes.get(record.getShape());
+        if (stats == null && shapes.size() < maxShapes) {
+            stats = shapes.computeIfAbsent(record.getShape(), QueryShapeStats::new);
+        }
+        if (stats != null) {
+            stats.add(record);
+        }
+        log.warn("慢查询 [耗时: {}ms, 执行: {}ms, 读取: {}ms, 行数: {}] {} 参数: {}",
+                SlowQueryRecord.millis(record.getTotalNanos()), SlowQueryRecord.millis(record.getExecuteNanos()),
+                SlowQueryRecord.millis(record.getFetchNanos()), record.getRowCount(), record.getSql(),
+                record.getParameters());
+
+        if (explainExecutor != null && explainSource != null && record.getError() == null
+                && record.getShape().regionMatches(true, 0, "select", 0, 6)
+                && ThreadLocalRandom.current().nextDouble() < explainSampleRate) {
+            explainExecutor.execute(() -> explain(record, parameters, explainSource));
+        }
+    }
+
+    /**
+     * 最近的慢查询，按发生顺序
+     *
+     * @return 记录快照
+     */
+    public List<SlowQueryRecord> getRecent() {
+        synchronized (ring) {
+            return new ArrayList<>(ring);
+        }
+    }
+
+    /**
+     * 各查询形态的累计统计，按总耗时降序
+     *
+     * @return 统计快照
+     */
+    public List<QueryShapeStats> getShapes() {
+        List<QueryShapeStats> result = new ArrayList<>(shapes.values());
+        result.sort(Comparator.comparingLong(QueryShapeStats::getTotalNanos).reversed());
+        return result;
+    }
+
+    /**
+     * 清空记录与统计
+     */
+    public void clear() {
+        synchronized (ring) {
+            ring.clear();
+        }
+        shapes.clear();
+    }
+
+    /**
+     * 导出到配置的文件
+     *
+     * @return 导出文件
+     * @throws IOException 写入失败
+     */
+    public Path dump() throws IOException {
+        return dump(dumpFile);
+    }
+
+    /**
+     * 导出形态统计与最近的慢查询到文本文件（覆盖已有文件）
+     *
+     * @param file 导出文件
+     * @return 导出文件
+     * @throws IOException 写入失败
+     */
+    public Path dump(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        List<QueryShapeStats> shapeSnapshot = getShapes();
+        List<SlowQueryRecord> recordSnapshot = getRecent();
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# slow query dump at " + Instant.now());
+            writer.newLine();
+            writer.write("# shapes by total time (" + shapeSnapshot.size() + ")");
+            writer.newLine();
+            for (QueryShapeStats stats : shapeSnapshot) {
+                writer.write(stats.toString());
+                writer.newLine();
+                writer.newLine();
+            }
+            writer.write("# recent slow queries (" + recordSnapshot.size() + ")");
+            writer.newLine();
+            for (SlowQueryRecord record : recordSnapshot) {
+                writer.write(record.toString());
+                writer.newLine();
+                writer.newLine();
+            }
+        }
+        log.info("慢查询已导出: {} 个形态, {} 条记录 -> {}", shapeSnapshot.size(), recordSnapshot.size(), file);
+        return file;
+    }
+
+    /**
+     * 去掉 SQL 中的字面量，得到查询形态
+     * 字符串与数字替换为 ?，IN 列表合并为 IN (?)，空白合并为单个空格；
+     * 标识符中的数字（如子表名 sensor_device001）与时长（如 INTERVAL(1h)）保持不变
+     *
+     * @param sql SQL
+     * @return 查询形态
+     */
+    public static String normalize(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("IN (?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    @Override
+    public void close() {
+        if (explainExecutor != null) {
+            explainExecutor.shutdownNow();
+        }
+    }
+
+    private void explain(SlowQueryRecord record, List<Object> parameters, DataSource explainSource) {
+        String explainSql = (explainAnalyze ? "EXPLAIN ANALYZE " : "EXPLAIN ") + record.getSql();
+        try {
+            String plan = bulkheads == null ? queryPlan(explainSql, parameters, explainSource)
+                    : bulkheads.execute(WorkloadKind.SCAN, () -> queryPlan(explainSql, parameters, explainSource));
+            record.setPlan(plan);
+            log.info("慢查询执行计划 {}\n{}", record.getShape(), plan);
+        } catch (RuntimeException e) {
+            record.setPlan("EXPLAIN 失败: " + e.getMessage());
+            log.debug("慢查询执行计划采集失败: {}", record.getShape(), e);
+        }
+    }
+
+    private static String queryPlan(String explainSql, List<Object> parameters, DataSource explainSource) {
+        try (Connection connection = explainSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(explainSql)) {
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    if (plan.length() > 0) {
+                        plan.append('\n');
+                    }
+                    plan.append(resultSet.getString(1));
+                }
+            }
+            return plan.toString();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.zephyrcicd.demo.slowquery;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 慢查询日志配置
+ *
+ * @author zephyr
+ */
+@ConfigurationProperties(prefix = "demo.slow-query")
+public class SlowQueryProperties {
+
+    /**
+     * 是否启用慢查询日志
+     */
+    private boolean enabled = false;
+
+    /**
+     * 慢查询阈值（毫秒），按执行开始到结果集读完的总耗时判断
+     */
+    private long thresholdMs = 500;
+
+    /**
+     * 环形缓冲保留的慢查询条数
+     */
+    private int capacity = 200;
+
+    /**
+     * 最多统计的查询形态数，超出后新形态只进入环形缓冲
+     */
+    private int maxShapes = 500;
+
+    /**
+     * 是否对慢 SELECT 异步采集执行计划
+     */
+    private boolean explain = false;
+
+    /**
+     * 使用 EXPLAIN ANALYZE（会再次实际执行查询）
+     */
+    private boolean explainAnalyze = false;
+
+    /**
+     * 执行计划采集的抽样比例（0~1）
+     */
+    private double explainSampleRate = 0.1;
+
+    /**
+     * 等待采集执行计划的最大任务数，超出的直接放弃
+     */
+    private int explainQueueSize = 16;
+
+    /**
+     * 导出文件，为空时使用临时目录下的 td-orm-demo/slow-query.log
+     */
+    private String dumpFile = "";
+
+    /**
+     * 需要追踪的数据源 Bean 名称，为空时追踪所有数据源
+     */
+    private List<String> dataSourceBeanNames = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getThresholdMs() {
+        return thresholdMs;
+    }
+
+    public void setThresholdMs(long thresholdMs) {
+        this.thresholdMs = thresholdMs;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getMaxShapes() {
+        return maxShapes;
+    }
+
+    public void setMaxShapes(int maxShapes) {
+        this.maxShapes = maxShapes;
+    }
+
+    public boolean isExplain() {
+        return explain;
+    }
+
+    public void setExplain(boolean explain) {
+        this.explain = explain;
+    }
+
+    public boolean isExplainAnalyze() {
+        return explainAnalyze;
+    }
+
+    public void setExplainAnalyze(boolean explainAnalyze) {
+        this.explainAnalyze = explainAnalyze;
+    }
+
+    public double getExplainSampleRate() {
+        return explainSampleRate;
+    }
+
+    public void setExplainSampleRate(double explainSampleRate) {
+        this.explainSampleRate = explainSampleRate;
+    }
+
+    public int getExplainQueueSize() {
+        return explainQueueSize;
+    }
+
+    public void setExplainQueueSize(int explainQueueSize) {
+        this.explainQueueSize = explainQueueSize;
+    }
+
+    public String getDumpFile() {
+        return dumpFile;
+    }
+
+    public void setDumpFile(String dumpFile) {
+        this.dumpFile = dumpFile;
+    }
+
+    public List<String> getDataSourceBeanNames() {
+        return dataSourceBeanNames;
+    }
+
+    public void setDataSourceBeanNames(List<String> dataSourceBeanNames) {
+        this.dataSourceBeanNames = dataSourceBeanNames;
+    }
+}
@@ -0,0 +1,139 @@
+package com.zephyrcicd.demo.slowquery;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 一次慢查询的记录
+ * 耗时分为执行（execute 返回前）、读取（ResultSet.next 内）与总耗时（执行开始到结果集读完或关闭），
+ * 总耗时减去前两者即为调用方处理结果的时间
+ *
+ * @author zephyr
+ */
+public class SlowQueryRecord {
+
+    private final long timestamp;
+    private final String sql;
+    private final String shape;
+    private final List<String> parameters;
+    private final int batchSize;
+    private final long rowCount;
+    private final long executeNanos;
+    private final long fetchNanos;
+    private final long totalNanos;
+    private final String thread;
+    private final String error;
+
+    private volatile String plan;
+
+    public SlowQueryRecord(long timestamp, String sql, List<String> parameters, int batchSize, long rowCount,
+                           long executeNanos, long fetchNanos, long totalNanos, String thread, String error) {
+        this.timestamp = timestamp;
+        this.sql = sql;
+        this.shape = SlowQueryLog.normalize(sql);
+        this.parameters = Collections.unmodifiableList(parameters);
+        this.batchSize = batchSize;
+        this.rowCount = rowCount;
+        this.executeNanos = executeNanos;
+        this.fetchNanos = fetchNanos;
+        this.totalNanos = totalNanos;
+        this.thread = thread;
+        this.error = error;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * 去掉字面量后的 SQL，用于归并同一形态的查询
+     */
+    public String getShape() {
+        return shape;
+    }
+
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * 批量执行的条数，非批量为 0
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * 查询返回的行数或更新影响的行数
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getExecuteNanos() {
+        return executeNanos;
+    }
+
+    public long getFetchNanos() {
+        return fetchNanos;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public String getThread() {
+        return thread;
+    }
+
+    /**
+     * 执行失败时的异常信息，成功为 null
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * 异步采集的执行计划，未采集时为 null
+     */
+    public String getPlan() {
+        return plan;
+    }
+
+    void setPlan(String plan) {
+        this.plan = plan;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(Instant.ofEpochMilli(timestamp))
+                .append(" [").append(thread).append("] total=").append(millis(totalNanos))
+                .append("ms execute=").append(millis(executeNanos))
+                .append("ms fetch=").append(millis(fetchNanos))
+                .append("ms rows=").append(rowCount);
+        if (batchSize > 0) {
+            sb.append(" batch=").append(batchSize);
+        }
+        sb.append('\n').append(sql);
+        if (!parameters.isEmpty()) {
+            sb.append("\nparameters: ").append(parameters);
+        }
+        if (error != null) {
+            sb.append("\nerror: ").append(error);
+        }
+        if (plan != null) {
+            sb.append("\nplan:\n").append(plan);
+        }
+        return sb.toString();
+    }
+
+    static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,323 @@
+package com.zephyrcicd.demo.slowquery;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 追踪 SQL 执行的数据源包装
+ * <p>
+ * TdTemplate 生成的 SQL 最终都经由数据源执行，在 JDBC 层记录渲染后的 SQL、绑定参数、行数与耗时，
+ * 不需要改动 TdTemplate 或 TdQueryWrapper。查询的计时持续到结果集读完或关闭，因此包含读取结果的时间。
+ * <p>
+ * {@link #wrap} 基于 JDK 动态代理，只暴露 JDBC 标准接口；容器中的数据源由 {@link TracingDataSourcePostProcessor}
+ * 以基于类的代理包装，保留连接池的具体类型，只对取得的连接使用 {@link #connectionTracer}。
+ *
+ * @author zephyr
+ */
+public final class TracingDataSource {
+
+    private static final int MAX_PARAMETER_LENGTH = 200;
+
+    private TracingDataSource() {
+    }
+
+    /**
+     * 包装数据源
+     *
+     * @param target      原始数据源
+     * @param logSupplier 慢查询日志，首次执行 SQL 时解析
+     * @return 追踪执行的数据源
+     */
+    public static DataSource wrap(DataSource target, Supplier<SlowQueryLog> logSupplier) {
+        UnaryOperator<Connection> tracer = connectionTracer(target, logSupplier);
+        return (DataSource) Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(),
+                new Class<?>[]{DataSource.class}, new Handler(target) {
+                    @Override
+                    Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+                        Object result = delegate(method, args);
+                        return result instanceof Connection ? tracer.apply((Connection) result) : result;
+                    }
+                });
+    }
+
+    /**
+     * 包装从数据源取得的连接
+     *
+     * @param target      原始数据源，EXPLAIN 使用该数据源执行，不会再次被追踪
+     * @param logSupplier 慢查询日志，首次执行 SQL 时解析
+     * @return 连接包装函数
+     */
+    static UnaryOperator<Connection> connectionTracer(DataSource target, Supplier<SlowQueryLog> logSupplier) {
+        Tracer tracer = new Tracer(target, logSupplier);
+        return connection -> wrapConnection(connection, tracer);
+    }
+
+    private static Connection wrapConnection(Connection connection, Tracer tracer) {
+        return (Connection) Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new Handler(connection) {
+                    @Override
+                    Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+                        Object result = delegate(method, args);
+                        if (!(result instanceof Statement)) {
+                            return result;
+                        }
+                        String sql = args != null && args.length > 0 && args[0] instanceof String
+                                ? (String) args[0] : null;
+                        return wrapStatement((Statement) result, sql, tracer);
+                    }
+                });
+    }
+
+    private static Statement wrapStatement(Statement statement, String sql, Tracer tracer) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return (Statement) Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, new StatementHandler(statement, sql, tracer));
+    }
+
+    private static ResultSet wrapResultSet(ResultSet resultSet, Execution execution) {
+        return (ResultSet) Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, new Handler(resultSet) {
+                    @Override
+                    Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+                        String name = method.getName();
+                        if ("next".equals(name)) {
+                            long start = System.nanoTime();
+                            Object result = delegate(method, args);
+                            execution.fetchNanos += System.nanoTime() - start;
+                            if (Boolean.TRUE.equals(result)) {
+                                execution.rows++;
+                            } else {
+                                execution.finish();
+                            }
+                            return result;
+                        }
+                        if ("close".equals(name)) {
+                            execution.finish();
+                        }
+                        return delegate(method, args);
+                    }
+                });
+    }
+
+    /**
+     * 代理基类：equals/hashCode 按代理自身处理，其余方法转发给被包装对象
+     */
+    private abstract static class Handler implements InvocationHandler {
+
+        private final Object target;
+
+        Handler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return args != null && args.length == 1 && proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Tracing[" + target + "]";
+                default:
+                    return handle(proxy, method, args);
+            }
+        }
+
+        abstract Object handle(Object proxy, Method method, Object[] args) throws Throwable;
+
+        Object delegate(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * 语句代理：收集绑定参数，为每次执行建立 {@link Execution}
+     */
+    private static class StatementHandler extends Handler {
+
+        private final String sql;
+        private final Tracer tracer;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+        private int batchSize;
+        private Execution current;
+
+        StatementHandler(Statement target, String sql, Tracer tracer) {
+            super(target);
+            this.sql = sql;
+            this.tracer = tracer;
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            Class<?> declaring = method.getDeclaringClass();
+            if ((declaring == PreparedStatement.class || declaring == CallableStatement.class)
+                    && name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                parameters.put((Integer) args[0], args[1]);
+            } else if ("clearParameters".equals(name)) {
+                parameters.clear();
+            } else if ("addBatch".equals(name)) {
+                batchSize++;
+            } else if ("clearBatch".equals(name)) {
+                batchSize = 0;
+            } else if (name.startsWith("execute")) {
+                return execute(method, args);
+            } else if ("getResultSet".equals(name)) {
+                Object result = delegate(method, args);
+                return result instanceof ResultSet && current != null
+                        ? wrapResultSet((ResultSet) result, current) : result;
+            } else if ("close".equals(name) && current != null) {
+                current.finish();
+            }
+            return delegate(method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            if (current != null) {
+                current.finish();
+            }
+            String executedSql = args != null && args.length > 0 && args[0] instanceof String
+                    ? (String) args[0] : sql;
+            boolean batch = "executeBatch".equals(method.getName()) || "executeLargeBatch".equals(method.getName());
+            Execution execution = new Execution(tracer, executedSql,
+                    batch ? Collections.emptyList() : new ArrayList<>(parameters.values()), batch ? batchSize : 0);
+            if (batch) {
+                batchSize = 0;
+            }
+            current = execution;
+            Object result;
+            try {
+                result = delegate(method, args);
+            } catch (Throwable e) {
+                execution.executeNanos = System.nanoTime() - execution.startNanos;
+                execution.error = e.toString();
+                execution.finish();
+                throw e;
+            }
+            execution.executeNanos = System.nanoTime() - execution.startNanos;
+            if (result instanceof ResultSet) {
+                return wrapResultSet((ResultSet) result, execution);
+            }
+            if (Boolean.TRUE.equals(result)) {
+                // execute() 返回结果集，等待 getResultSet 读取
+                return result;
+            }
+            execution.rows = updateCount(result);
+            execution.finish();
+            return result;
+        }
+
+        private static long updateCount(Object result) {
+            if (result instanceof Number) {
+                return ((Number) result).longValue();
+            }
+            long total = 0;
+            if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    total += Math.max(count, 0);
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    total += Math.max(count, 0);
+                }
+            }
+            return total;
+        }
+    }
+
+    /**
+     * 一次 SQL 执行的计时，结果集读完、关闭或语句再次执行时结束
+     */
+    private static class Execution {
+
+        private final Tracer tracer;
+        private final String sql;
+        private final List<Object> parameters;
+        private final int batchSize;
+        private final long startNanos = System.nanoTime();
+        private long executeNanos;
+        private long fetchNanos;
+        private long rows;
+        private String error;
+        private boolean finished;
+
+        Execution(Tracer tracer, String sql, List<Object> parameters, int batchSize) {
+            this.tracer = tracer;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.batchSize = batchSize;
+        }
+
+        void finish() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            long totalNanos = System.nanoTime() - startNanos;
+            SlowQueryLog log = tracer.getLog();
+            if (log == null || !log.isSlow(totalNanos)) {
+                return;
+            }
+            List<String> displayed = new ArrayList<>(parameters.size());
+            for (Object parameter : parameters) {
+                displayed.add(display(parameter));
+            }
+            SlowQueryRecord record = new SlowQueryRecord(System.currentTimeMillis(), sql, displayed, batchSize, rows,
+                    executeNanos, fetchNanos, totalNanos, Thread.currentThread().getName(), error);
+            log.record(record, parameters, tracer.target);
+        }
+
+        private static String display(Object parameter) {
+            if (parameter instanceof byte[]) {
+                return "<" + ((byte[]) parameter).length + " bytes>";
+            }
+            String text = String.valueOf(parameter);
+            return text.length() > MAX_PARAMETER_LENGTH ? text.substring(0, MAX_PARAMETER_LENGTH) + "..." : text;
+        }
+    }
+
+    /**
+     * 原始数据源与延迟解析的慢查询日志
+     */
+    private static class Tracer {
+
+        private final DataSource target;
+        private final Supplier<SlowQueryLog> logSupplier;
+        private volatile SlowQueryLog log;
+
+        Tracer(DataSource target, Supplier<SlowQueryLog> logSupplier) {
+            this.target = target;
+            this.logSupplier = logSupplier;
+        }
+
+        SlowQueryLog getLog() {
+            SlowQueryLog result = log;
+            if (result == null) {
+                result = logSupplier.get();
+                log = result;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.zephyrcicd.demo.slowquery;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.AopConfigException;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * 为容器中的数据源加上 SQL 追踪，TdTemplate 的所有执行随之进入慢查询日志
+ * <p>
+ * 使用基于类的代理，代理对象仍是原连接池类型（如 HikariDataSource），按具体类型注入的地方不受影响；
+ * 连接池类型无法生成子类代理（如 final 类）时不做包装，只记录告警。
+ *
+ * @author zephyr
+ */
+public class TracingDataSourcePostProcessor implements BeanPostProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(TracingDataSourcePostProcessor.class);
+
+    private final ObjectProvider<SlowQueryLog> logProvider;
+    private final List<String> beanNames;
+
+    /**
+     * @param logProvider 慢查询日志
+     * @param beanNames   需要追踪的数据源 Bean 名称，为空时追踪所有数据源
+     */
+    public TracingDataSourcePostProcessor(ObjectProvider<SlowQueryLog> logProvider, Collection<String> beanNames) {
+        this.logProvider = logProvider;
+        this.beanNames = new ArrayList<>(beanNames);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource) || (!beanNames.isEmpty() && !beanNames.contains(beanName))) {
+            return bean;
+        }
+        UnaryOperator<Connection> tracer = TracingDataSource.connectionTracer((DataSource) bean, logProvider::getObject);
+        ProxyFactory factory = new ProxyFactory(bean);
+        factory.setProxyTargetClass(true);
+        factory.addAdvice((MethodInterceptor) invocation -> {
+            Object result = invocation.proceed();
+            return result instanceof Connection ? tracer.apply((Connection) result) : result;
+        });
+        try {
+            Object proxy = factory.getProxy(bean.getClass().getClassLoader());
+            log.info("数据源 {} ({}) 已启用慢查询追踪", beanName, bean.getClass().getName());
+            return proxy;
+        } catch (AopConfigException e) {
+            log.warn("数据源 {} ({}) 无法生成代理，不追踪慢查询", beanName, bean.getClass().getName(), e);
+            return bean;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.zephyrcicd.demo.transfer;
+
+import com.zephyrcicd.demo.count.SensorCountIndex;
+import com.zephyrcicd.demo.ingest.SensorDataWriter;
+import com.zephyrcicd.demo.shard.ShardedSensorRouter;
+import com.zephyrcicd.demo.workload.WorkloadBulkheads;
+import com.zephyrcicd.tdengineorm.template.TdTemplate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * 批量导入导出配置
+ *
+ * @author zephyr
+ */
+@Configuration
+@EnableConfigurationProperties(BulkTransferProperties.class)
+public class BulkTransferConfiguration {
+
+    @Bean
+    public BulkTransferService bulkTransferService(TdTemplate tdTemplate, SensorDataWriter writer,
+                                                   WorkloadBulkheads bulkheads,
+                                                   ObjectProvider<SensorCountIndex> countIndexProvider,
+                                                   ObjectProvider<ShardedSensorRouter> routerProvider,
+                                                   BulkTransferProperties properties, Environment environment) {
+        return new BulkTransferService(tdTemplate, writer, bulkheads, countIndexProvider, routerProvider,
+                environment.getProperty("td-orm.url", ""), properties);
+    }
+}
@@ -0,0 +1,64 @@
+package com.zephyrcicd.demo.transfer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 批量导入导出配置
+ *
+ * @author zephyr
+ */
+@ConfigurationProperties(prefix = "demo.transfer")
+public class BulkTransferProperties {
+
+    /**
+     * 并行处理的子表数
+     */
+    private int parallelism = 4;
+
+    /**
+     * 每个文件通道的直接缓冲区大小（字节）
+     */
+    private int bufferSize = 4 * 1024 * 1024;
+
+    /**
+     * 导出时每次查询的行数
+     */
+    private int fetchSize = 10000;
+
+    /**
+     * 导入时每批写入的行数
+     */
+    private int batchSize = 2000;
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
@@ -0,0 +1,320 @@
+package com.zephyrcicd.demo.transfer;
+
+import com.zephyrcicd.demo.count.SensorCountIndex;
+import com.zephyrcicd.demo.entity.SensorData;
+import com.zephyrcicd.demo.ingest.SensorDataWriter;
+import com.zephyrcicd.demo.shard.ShardedSensorRouter;
+import com.zephyrcicd.demo.util.JdbcUrls;
+import com.zephyrcicd.demo.workload.WorkloadBulkheads;
+import com.zephyrcicd.tdengineorm.template.TdTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * 按子表并行的批量导入导出
+ * <p>
+ * 导出：每张子表一个文件，按 ts 游标分批查询（不使用 OFFSET），经直接缓冲区写入 {@link FileChannel}。
+ * 每批落盘后记录检查点，中断后重新执行同一任务会从检查点续传，已完成的子表直接跳过。
+ * 导出目录记录首次导出的时间范围，以不同的时间范围导出到同一目录会被拒绝，避免跳过或混入其他范围的文件。
+ * <p>
+ * 导入：流式读取文件，按 batchSize 分批经 {@link SensorDataWriter#bulkLoad(List)} 写入，内存占用与文件大小无关。
+ * 导入的是历史数据，不通知写入监听器（不触发告警、不累加计数索引），导入完成后重新回填计数索引。
+ * 同一子表相同时间戳的写入在 TDengine 中是覆盖，因此中断后重复导入对库中数据是幂等的。
+ * 启用分片时导出经分片路由读取，导入经 {@link SensorDataWriter} 按设备写入所属分片。
+ * 导入完成标记按目标库区分（{@code <子表>.<目标库标识>.imported}），同一导出目录可以依次导入多个集群。
+ *
+ * @author zephyr
+ */
+public class BulkTransferService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkTransferService.class);
+
+    static final String DATA_SUFFIX = ".sdat";
+    static final String PART_SUFFIX = ".part";
+    static final String CHECKPOINT_SUFFIX = ".ckpt";
+    static final String IMPORTED_SUFFIX = ".imported";
+    static final String RANGE_FILE = "export.range";
+
+    private static final Pattern SAFE_NAME = Pattern.compile("[A-Za-z0-9_.\\-]+");
+
+    private final TransferSource source;
+    private final Consumer<List<SensorData>> sink;
+    private final Runnable afterImport;
+    private final String targetId;
+    private final BulkTransferProperties properties;
+
+    /**
+     * @param targetUrl 导入目标库的 JDBC URL，用于区分导入完成标记
+     */
+    public BulkTransferService(TdTemplate tdTemplate, SensorDataWriter writer, WorkloadBulkheads bulkheads,
+                               ObjectProvider<SensorCountIndex> countIndexProvider,
+                               ObjectProvider<ShardedSensorRouter> routerProvider, String targetUrl,
+                               BulkTransferProperties properties) {
+        this(source(tdTemplate, bulkheads, routerProvider.getIfAvailable()), writer::bulkLoad, () -> {
+            SensorCountIndex countIndex = countIndexProvider.getIfAvailable();
+            if (countIndex != null) {
+                countIndex.rebuild();
+            }
+        }, JdbcUrls.targetId(targetUrl), properties);
+    }
+
+    /**
+     * @param source      导出数据来源
+     * @param sink        导入数据的写入方式
+     * @param afterImport 导入了新数据后执行的操作
+     * @param targetId    导入目标库标识，作为导入完成标记文件名的一部分
+     * @param properties  配置
+     */
+    BulkTransferService(TransferSource source, Consumer<List<SensorData>> sink, Runnable afterImport,
+                        String targetId, BulkTransferProperties properties) {
+        this.source = source;
+        this.sink = sink;
+        this.afterImport = afterImport;
+        this.targetId = targetId;
+        this.properties = properties;
+    }
+
+    /**
+     * 启用分片时经分片路由读取，否则直接使用 TdTemplate
+     */
+    private static TransferSource source(TdTemplate tdTemplate, WorkloadBulkheads bulkheads,
+                                         ShardedSensorRouter router) {
+        return router != null ? new ShardedTransferSource(router) : new TdTemplateTransferSource(tdTemplate, bulkheads);
+    }
+
+    /**
+     * 导出时间范围内所有设备的数据
+     *
+     * @param dir     导出目录
+     * @param startTs 起始时间（包含）
+     * @param endTs   结束时间（不包含）
+     * @return 导出结果
+     */
+    public TransferReport exportRange(Path dir, long startTs, long endTs) {
+        return exportRange(dir, source.listDeviceIds(startTs, endTs), startTs, endTs);
+    }
+
+    /**
+     * 导出指定设备在时间范围内的数据
+     *
+     * @param dir       导出目录
+     * @param deviceIds 设备ID列表，每个设备导出为一个文件
+     * @param startTs   起始时间（包含）
+     * @param endTs     结束时间（不包含）
+     * @return 导出结果
+     * @throws IllegalStateException 目录中已有其他时间范围的导出
+     */
+    public TransferReport exportRange(Path dir, List<String> deviceIds, long startTs, long endTs) {
+        checkRange(dir, startTs, endTs);
+        TransferReport report = new TransferReport();
+        runParallel(deviceIds, report, deviceId -> exportTable(dir, deviceId, startTs, endTs, report));
+        report.finish();
+        log.info("导出完成: {}", report);
+        return report;
+    }
+
+    /**
+     * 导入目录下所有已完成导出的文件
+     *
+     * @param dir 导出目录
+     * @return 导入结果
+     */
+    public TransferReport importDirectory(Path dir) {
+        List<String> tables = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + DATA_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                tables.add(name.substring(0, name.length() - DATA_SUFFIX.length()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        TransferReport report = new TransferReport();
+        runParallel(tables, report, table -> importTable(dir, table, report));
+        report.finish();
+        if (report.getTotalRows() > 0) {
+            afterImport.run();
+        }
+        log.info("导入完成: {}", report);
+        return report;
+    }
+
+    private void exportTable(Path dir, String deviceId, long startTs, long endTs, TransferReport report)
+            throws IOException {
+        if (!SAFE_NAME.matcher(deviceId).matches()) {
+            throw new IllegalArgumentException("设备ID不能作为文件名: " + deviceId);
+        }
+        Path target = dir.resolve(deviceId + DATA_SUFFIX);
+        if (Files.exists(target)) {
+            report.skipped(deviceId);
+            return;
+        }
+        Path part = dir.resolve(deviceId + DATA_SUFFIX + PART_SUFFIX);
+        Path checkpointFile = dir.resolve(deviceId + CHECKPOINT_SUFFIX);
+        long[] checkpoint = Files.exists(part) ? readCheckpoint(checkpointFile) : null;
+
+        long position = checkpoint == null ? 0 : checkpoint[0];
+        long from = checkpoint == null ? startTs : checkpoint[1] + 1;
+        long rows = checkpoint == null ? 0 : checkpoint[2];
+        if (checkpoint != null) {
+            log.info("子表 {} 从检查点续传: 已导出 {} 条", deviceId, rows);
+        }
+
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.truncate(position);
+            channel.position(position);
+            SensorDataFileWriter fileWriter = new SensorDataFileWriter(channel, properties.getBufferSize());
+            if (checkpoint == null) {
+                SensorData tags = source.findTags(deviceId);
+                if (tags == null) {
+                    tags = SensorData.builder().deviceId(deviceId).build();
+                }
+                fileWriter.writeHeader(tags);
+            }
+
+            int fetchSize = properties.getFetchSize();
+            while (true) {
+                List<SensorData> chunk = source.fetch(deviceId, from, endTs, fetchSize);
+                for (SensorData data : chunk) {
+                    fileWriter.write(data);
+                }
+                fileWriter.flush();
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                channel.force(false);
+                rows += chunk.size();
+                from = chunk.get(chunk.size() - 1).getTs() + 1;
+                writeCheckpoint(checkpointFile, channel.position(), from - 1, rows);
+                if (chunk.size() < fetchSize) {
+                    break;
+                }
+            }
+            channel.force(true);
+        }
+        Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(checkpointFile);
+        report.succeeded(deviceId, rows, Files.size(target));
+    }
+
+    private void importTable(Path dir, String table, TransferReport report) throws IOException {
+        Path file = dir.resolve(table + DATA_SUFFIX);
+        Path marker = dir.resolve(table + "." + targetId + IMPORTED_SUFFIX);
+        if (Files.exists(marker)) {
+            report.skipped(table);
+            return;
+        }
+        int batchSize = properties.getBatchSize();
+        long rows = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            SensorDataFileReader reader = new SensorDataFileReader(channel, properties.getBufferSize());
+            reader.readHeader();
+            List<SensorData> batch = new ArrayList<>(batchSize);
+            SensorData data;
+            while ((data = reader.read()) != null) {
+                batch.add(data);
+                if (batch.size() == batchSize) {
+                    sink.accept(batch);
+                    rows += batch.size();
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                sink.accept(batch);
+                rows += batch.size();
+            }
+        }
+        Files.write(marker, String.valueOf(rows).getBytes(StandardCharsets.UTF_8));
+        report.succeeded(table, rows, Files.size(file));
+    }
+
+    private void runParallel(List<String> tables, TransferReport report, TableTask task) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, properties.getParallelism()));
+        try {
+            List<Future<?>> futures = new ArrayList<>(tables.size());
+            for (String table : tables) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        task.run(table);
+                    } catch (Exception e) {
+                        log.warn("子表 {} 处理失败，可重新执行以续传", table, e);
+                        report.failed(table, e);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("批量任务被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long[] readCheckpoint(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        String[] parts = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim().split(",");
+        return new long[]{Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2])};
+    }
+
+    /**
+     * 检查点格式：文件位置,最后导出的时间戳,已导出行数
+     */
+    private static void writeCheckpoint(Path file, long position, long lastTs, long rows) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, (position + "," + lastTs + "," + rows).getBytes(StandardCharsets.UTF_8));
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 首次导出时记录时间范围，之后只接受相同的时间范围
+     */
+    private static synchronized void checkRange(Path dir, long startTs, long endTs) {
+        String range = startTs + "," + endTs;
+        Path rangeFile = dir.resolve(RANGE_FILE);
+        try {
+            Files.createDirectories(dir);
+            if (Files.exists(rangeFile)) {
+                String existing = new String(Files.readAllBytes(rangeFile), StandardCharsets.UTF_8).trim();
+                if (!existing.equals(range)) {
+                    throw new IllegalStateException("目录 " + dir + " 已用于导出时间范围 [" + existing
+                            + ")，与本次 [" + range + ") 不一致，请使用新的目录");
+                }
+                return;
+            }
+            Files.write(rangeFile, range.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface TableTask {
+        void run(String table) throws Exception;
+    }
+}
@@ -0,0 +1,136 @@
+package com.zephyrcicd.demo.transfer;
+
+import com.zephyrcicd.demo.entity.SensorData;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+import static com.zephyrcicd.demo.transfer.SensorDataFileWriter.*;
+
+/**
+ * 传感器数据二进制文件读取，格式见 {@link SensorDataFileWriter}
+ *
+ * @author zephyr
+ */
+public class SensorDataFileReader {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private boolean eof;
+
+    private String deviceId;
+    private String location;
+    private String deviceType;
+
+    /**
+     * @param channel    已定位到文件头的文件通道
+     * @param bufferSize 直接缓冲区大小
+     */
+    public SensorDataFileReader(FileChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.buffer.flip();
+    }
+
+    /**
+     * 读取并校验文件头
+     */
+    public void readHeader() throws IOException {
+        require(4 + 2 + 2);
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("不是传感器数据文件");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("不支持的文件版本: " + version);
+        }
+        deviceId = getString();
+        location = getString();
+        deviceType = getString();
+    }
+
+    /**
+     * 读取下一条记录，TAG 字段取自文件头
+     *
+     * @return 传感器数据，文件结束时返回 null
+     */
+    public SensorData read() throws IOException {
+        if (!fill(1)) {
+            return null;
+        }
+        require(8 + 1);
+        long ts = buffer.getLong();
+        int mask = buffer.get();
+
+        SensorData data = new SensorData();
+        data.setDeviceId(deviceId);
+        data.setLocation(location);
+        data.setDeviceType(deviceType);
+        data.setTs(ts);
+        if ((mask & MASK_TEMPERATURE) != 0) {
+            require(8);
+            data.setTemperature(buffer.getDouble());
+        }
+        if ((mask & MASK_HUMIDITY) != 0) {
+            require(8);
+            data.setHumidity(buffer.getDouble());
+        }
+        if ((mask & MASK_VOLTAGE) != 0) {
+            require(4);
+            data.setVoltage(buffer.getFloat());
+        }
+        if ((mask & MASK_STATUS) != 0) {
+            require(1);
+            data.setStatus((int) buffer.get());
+        }
+        if ((mask & MASK_REMARK) != 0) {
+            data.setRemark(getString());
+        }
+        return data;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    private String getString() throws IOException {
+        require(2);
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        require(length);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void require(int bytes) throws IOException {
+        if (!fill(bytes)) {
+            throw new EOFException("文件被截断");
+        }
+    }
+
+    /**
+     * 确保缓冲区中至少有 bytes 个未读字节
+     *
+     * @return 文件已结束且字节不足时返回 false
+     */
+    private boolean fill(int bytes) throws IOException {
+        while (buffer.remaining() < bytes) {
+            if (eof) {
+                return false;
+            }
+            buffer.compact();
+            int read = channel.read(buffer);
+            buffer.flip();
+            if (read < 0) {
+                eof = true;
+            }
+        }
+        return true;
+    }
+}
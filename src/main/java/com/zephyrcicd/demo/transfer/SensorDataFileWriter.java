@@ -0,0 +1,156 @@
+package com.zephyrcicd.demo.transfer;
+
+import com.zephyrcicd.demo.entity.SensorData;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 传感器数据二进制文件写入
+ * <p>
+ * 文件格式（大端序）：
+ * <pre>
+ * 文件头: int magic | short version | string deviceId | string location | string deviceType
+ * 记录:   long ts | byte mask | [double temperature] | [double humidity] | [float voltage] | [byte status] | [string remark]
+ * string: short 字节长度（-1 表示 null） | UTF-8 字节
+ * </pre>
+ * 一个文件对应一张子表，TAG 只在文件头写一次；mask 的各位表示对应字段非空
+ *
+ * @author zephyr
+ */
+public class SensorDataFileWriter {
+
+    static final int MAGIC = 0x53444154;
+    static final short VERSION = 1;
+
+    static final int MASK_TEMPERATURE = 1;
+    static final int MASK_HUMIDITY = 1 << 1;
+    static final int MASK_VOLTAGE = 1 << 2;
+    static final int MASK_STATUS = 1 << 3;
+    static final int MASK_REMARK = 1 << 4;
+
+    /**
+     * 不含 remark 的单条记录最大字节数
+     */
+    static final int FIXED_RECORD_BYTES = 8 + 1 + 8 + 8 + 4 + 1 + 2;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+    /**
+     * @param channel    已定位到写入位置的文件通道
+     * @param bufferSize 直接缓冲区大小
+     */
+    public SensorDataFileWriter(FileChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * 写入文件头
+     *
+     * @param tags 携带 TAG 字段的任意一条数据
+     */
+    public void writeHeader(SensorData tags) throws IOException {
+        byte[] deviceId = encode(tags.getDeviceId());
+        byte[] location = encode(tags.getLocation());
+        byte[] deviceType = encode(tags.getDeviceType());
+        ensureCapacity(4 + 2 + 6 + length(deviceId) + length(location) + length(deviceType));
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        putString(deviceId);
+        putString(location);
+        putString(deviceType);
+    }
+
+    /**
+     * 写入一条记录
+     *
+     * @param data 传感器数据，ts 不能为空
+     */
+    public void write(SensorData data) throws IOException {
+        byte[] remark = encode(data.getRemark());
+        ensureCapacity(FIXED_RECORD_BYTES + length(remark));
+
+        int mask = 0;
+        if (data.getTemperature() != null) {
+            mask |= MASK_TEMPERATURE;
+        }
+        if (data.getHumidity() != null) {
+            mask |= MASK_HUMIDITY;
+        }
+        if (data.getVoltage() != null) {
+            mask |= MASK_VOLTAGE;
+        }
+        if (data.getStatus() != null) {
+            mask |= MASK_STATUS;
+        }
+        if (remark != null) {
+            mask |= MASK_REMARK;
+        }
+
+        buffer.putLong(data.getTs());
+        buffer.put((byte) mask);
+        if (data.getTemperature() != null) {
+            buffer.putDouble(data.getTemperature());
+        }
+        if (data.getHumidity() != null) {
+            buffer.putDouble(data.getHumidity());
+        }
+        if (data.getVoltage() != null) {
+            buffer.putFloat(data.getVoltage());
+        }
+        if (data.getStatus() != null) {
+            buffer.put(data.getStatus().byteValue());
+        }
+        if (remark != null) {
+            putString(remark);
+        }
+    }
+
+    /**
+     * 将缓冲区内容写入通道
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+        if (buffer.remaining() < bytes) {
+            throw new IOException("单条记录 " + bytes + " 字节超过缓冲区大小 " + buffer.capacity());
+        }
+    }
+
+    private void putString(byte[] bytes) {
+        if (bytes == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static byte[] encode(String value) throws IOException {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IOException("字符串过长: " + bytes.length + " 字节");
+        }
+        return bytes;
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+}
@@ -0,0 +1,42 @@
+package com.zephyrcicd.demo.transfer;
+
+import com.zephyrcicd.demo.entity.SensorData;
+import com.zephyrcicd.demo.shard.MergeFunction;
+import com.zephyrcicd.demo.shard.ShardedSensorRouter;
+import com.zephyrcicd.demo.workload.WorkloadKind;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 经 {@link ShardedSensorRouter} 读取导出数据：设备列表分发到所有分片后合并，单设备数据只读其所属分片
+ *
+ * @author zephyr
+ */
+class ShardedTransferSource implements TransferSource {
+
+    private final ShardedSensorRouter router;
+
+    ShardedTransferSource(ShardedSensorRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    public List<String> listDeviceIds(long startTs, long endTs) {
+        return TdTemplateTransferSource.deviceIds(router.scatterAggregate(
+                () -> TdTemplateTransferSource.deviceIdsWrapper(startTs, endTs),
+                Collections.singletonList("device_id"), Collections.singletonMap("c", MergeFunction.SUM)));
+    }
+
+    @Override
+    public SensorData findTags(String deviceId) {
+        List<SensorData> dataList = router.list(deviceId, TdTemplateTransferSource.tagsWrapper(deviceId));
+        return dataList.isEmpty() ? null : dataList.get(0);
+    }
+
+    @Override
+    public List<SensorData> fetch(String deviceId, long fromTs, long endTs, int limit) {
+        return router.shardFor(deviceId).list(WorkloadKind.SCAN,
+                TdTemplateTransferSource.fetchWrapper(deviceId, fromTs, endTs, limit));
+    }
+}
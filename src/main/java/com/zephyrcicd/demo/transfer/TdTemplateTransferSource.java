@@ -0,0 +1,84 @@
+package com.zephyrcicd.demo.transfer;
+
+import com.zephyrcicd.demo.entity.SensorData;
+import com.zephyrcicd.demo.workload.WorkloadBulkheads;
+import com.zephyrcicd.demo.workload.WorkloadKind;
+import com.zephyrcicd.tdengineorm.enums.TdSelectFuncEnum;
+import com.zephyrcicd.tdengineorm.template.TdTemplate;
+import com.zephyrcicd.tdengineorm.wrapper.TdQueryWrapper;
+import com.zephyrcicd.tdengineorm.wrapper.TdWrappers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 从 TDengine 读取导出数据，按 ts 游标分批查询（不使用 OFFSET）
+ *
+ * @author zephyr
+ */
+class TdTemplateTransferSource implements TransferSource {
+
+    private final TdTemplate tdTemplate;
+    private final WorkloadBulkheads bulkheads;
+
+    TdTemplateTransferSource(TdTemplate tdTemplate, WorkloadBulkheads bulkheads) {
+        this.tdTemplate = tdTemplate;
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    public List<String> listDeviceIds(long startTs, long endTs) {
+        TdQueryWrapper<SensorData> wrapper = deviceIdsWrapper(startTs, endTs);
+        return deviceIds(bulkheads.execute(WorkloadKind.SCAN, () -> tdTemplate.listAsMap(wrapper)));
+    }
+
+    @Override
+    public SensorData findTags(String deviceId) {
+        TdQueryWrapper<SensorData> wrapper = tagsWrapper(deviceId);
+        return bulkheads.execute(WorkloadKind.POINT_READ, () -> tdTemplate.getOne(wrapper));
+    }
+
+    @Override
+    public List<SensorData> fetch(String deviceId, long fromTs, long endTs, int limit) {
+        TdQueryWrapper<SensorData> wrapper = fetchWrapper(deviceId, fromTs, endTs, limit);
+        return bulkheads.execute(WorkloadKind.SCAN, () -> tdTemplate.list(wrapper));
+    }
+
+    /**
+     * 时间范围内按设备分组的 COUNT(*)
+     */
+    static TdQueryWrapper<SensorData> deviceIdsWrapper(long startTs, long endTs) {
+        return TdWrappers.queryWrapper(SensorData.class)
+                .select(SensorData::getDeviceId)
+                .selectFunc(TdSelectFuncEnum.COUNT, "*", "c")
+                .ge(SensorData::getTs, startTs)
+                .le(SensorData::getTs, endTs - 1)
+                .groupBy(SensorData::getDeviceId);
+    }
+
+    static TdQueryWrapper<SensorData> tagsWrapper(String deviceId) {
+        return TdWrappers.queryWrapper(SensorData.class)
+                .selectAll()
+                .eq(SensorData::getDeviceId, deviceId)
+                .limit(1);
+    }
+
+    static TdQueryWrapper<SensorData> fetchWrapper(String deviceId, long fromTs, long endTs, int limit) {
+        return TdWrappers.queryWrapper(SensorData.class)
+                .selectAll()
+                .eq(SensorData::getDeviceId, deviceId)
+                .ge(SensorData::getTs, fromTs)
+                .le(SensorData::getTs, endTs - 1)
+                .orderByAsc(SensorData::getTs)
+                .limit(limit);
+    }
+
+    static List<String> deviceIds(List<Map<String, Object>> rows) {
+        List<String> deviceIds = new ArrayList<>();
+        for (Map<String, Object> row : rows) {
+            deviceIds.add(String.valueOf(row.get("device_id")));
+        }
+        return deviceIds;
+    }
+}
@@ -0,0 +1,70 @@
+package com.zephyrcicd.demo.transfer;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 导入导出结果
+ * 失败的子表可直接重新执行同一任务续传，已完成的子表会被跳过
+ *
+ * @author zephyr
+ */
+public class TransferReport {
+
+    private final Map<String, Long> rowsByTable = new ConcurrentHashMap<>();
+    private final Map<String, String> failures = new ConcurrentHashMap<>();
+    private final Set<String> skipped = ConcurrentHashMap.newKeySet();
+    private final AtomicLong bytes = new AtomicLong();
+    private final long startNanos = System.nanoTime();
+    private volatile long elapsedNanos;
+
+    void succeeded(String table, long rows, long fileBytes) {
+        rowsByTable.put(table, rows);
+        bytes.addAndGet(fileBytes);
+    }
+
+    void skipped(String table) {
+        skipped.add(table);
+    }
+
+    void failed(String table, Throwable cause) {
+        failures.put(table, String.valueOf(cause));
+    }
+
+    void finish() {
+        elapsedNanos = System.nanoTime() - startNanos;
+    }
+
+    public long getTotalRows() {
+        return rowsByTable.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public long getTotalBytes() {
+        return bytes.get();
+    }
+
+    public Map<String, Long> getRowsByTable() {
+        return Collections.unmodifiableMap(rowsByTable);
+    }
+
+    public Map<String, String> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    public int getSkippedCount() {
+        return skipped.size();
+    }
+
+    public double getElapsedMs() {
+        return elapsedNanos / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return "TransferReport{tables=" + rowsByTable.size() + ", rows=" + getTotalRows() + ", bytes=" + getTotalBytes()
+                + ", skipped=" + skipped.size() + ", failed=" + failures.size() + ", elapsedMs=" + getElapsedMs() + "}";
+    }
+}
@@ -0,0 +1,41 @@
+package com.zephyrcicd.demo.transfer;
+
+import com.zephyrcicd.demo.entity.SensorData;
+
+import java.util.List;
+
+/**
+ * 导出的数据来源
+ *
+ * @author zephyr
+ */
+interface TransferSource {
+
+    /**
+     * 时间范围内有数据的设备
+     *
+     * @param startTs 起始时间（包含）
+     * @param endTs   结束时间（不包含）
+     * @return 设备ID列表
+     */
+    List<String> listDeviceIds(long startTs, long endTs);
+
+    /**
+     * 读取设备的任意一行，用于写入文件头中的 TAG
+     *
+     * @param deviceId 设备ID
+     * @return 数据，设备无数据时返回 null
+     */
+    SensorData findTags(String deviceId);
+
+    /**
+     * 按 ts 升序读取一批数据
+     *
+     * @param deviceId 设备ID
+     * @param fromTs   起始时间（包含）
+     * @param endTs    结束时间（不包含）
+     * @param limit    最多读取的行数
+     * @return 数据列表
+     */
+    List<SensorData> fetch(String deviceId, long fromTs, long endTs, int limit);
+}
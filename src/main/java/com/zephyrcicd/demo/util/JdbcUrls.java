@@ -0,0 +1,52 @@
+package com.zephyrcicd.demo.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * JDBC URL 工具
+ * TDengine 的 URL 常以查询参数携带用户名密码（?user=root&password=...），
+ * 需要用 URL 区分目标库（写入本地文件、日志）时只使用去掉查询参数后的部分
+ *
+ * @author zephyr
+ */
+public final class JdbcUrls {
+
+    private JdbcUrls() {
+    }
+
+    /**
+     * 去掉查询参数
+     *
+     * @param url JDBC URL，可为 null
+     * @return 不含查询参数的 URL，url 为 null 时返回空串
+     */
+    public static String withoutQuery(String url) {
+        if (url == null) {
+            return "";
+        }
+        int query = url.indexOf('?');
+        return query < 0 ? url : url.substring(0, query);
+    }
+
+    /**
+     * 目标库标识：去掉查询参数后 URL 的 SHA-256 前 12 位十六进制，可用作文件名
+     *
+     * @param url JDBC URL，可为 null
+     * @return 标识
+     */
+    public static String targetId(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(withoutQuery(url).getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < 6; i++) {
+                builder.append(String.format("%02x", digest[i]));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
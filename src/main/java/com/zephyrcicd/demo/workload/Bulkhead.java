@@ -0,0 +1,157 @@
+package com.zephyrcicd.demo.workload;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 隔离舱：限制一类负载同时占用的连接数
+ * <p>
+ * 超过并发上限的调用排队等待，排队数超过上限或等待超时则抛出 {@link BulkheadFullException}，
+ * 避免一类慢查询占满连接池而拖慢其他负载
+ *
+ * @author zephyr
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long maxWaitMs;
+    private final Semaphore permits;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * @param name          名称
+     * @param maxConcurrent 最大并发数，小于等于 0 表示不限制
+     * @param maxQueue      最大排队数
+     * @param maxWaitMs     最长等待时间（毫秒）
+     */
+    public Bulkhead(String name, int maxConcurrent, int maxQueue, long maxWaitMs) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.maxWaitMs = maxWaitMs;
+        this.permits = maxConcurrent > 0 ? new Semaphore(maxConcurrent, true) : null;
+    }
+
+    /**
+     * 在隔离舱内执行
+     *
+     * @param action 操作
+     * @param <T>    返回值类型
+     * @return 操作结果
+     */
+    public <T> T execute(Supplier<T> action) {
+        acquire();
+        active.incrementAndGet();
+        try {
+            return action.get();
+        } finally {
+            active.decrementAndGet();
+            completed.incrementAndGet();
+            if (permits != null) {
+                permits.release();
+            }
+        }
+    }
+
+    private void acquire() {
+        if (permits == null) {
+            return;
+        }
+        // 限时的 tryAcquire 遵循公平策略，有线程排队时不会插队抢占刚释放的许可
+        if (tryAcquire(0)) {
+            return;
+        }
+        if (waiting.incrementAndGet() > maxQueue) {
+            waiting.decrementAndGet();
+            rejected.incrementAndGet();
+            throw new BulkheadFullException("隔离舱 " + name + " 排队已满: " + maxQueue);
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = tryAcquire(maxWaitMs);
+        } finally {
+            waiting.decrementAndGet();
+        }
+        long waited = System.nanoTime() - start;
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        if (!acquired) {
+            rejected.incrementAndGet();
+            throw new BulkheadFullException("等待隔离舱 " + name + " 超时: " + maxWaitMs + "ms");
+        }
+    }
+
+    private boolean tryAcquire(long timeoutMs) {
+        try {
+            return permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.incrementAndGet();
+            throw new BulkheadFullException("等待隔离舱 " + name + " 时被中断");
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * 正在执行的调用数
+     */
+    public int getActive() {
+        return active.get();
+    }
+
+    /**
+     * 正在排队的调用数
+     */
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * 饱和度：正在执行数 / 最大并发数，不限制并发时为 0
+     */
+    public double getSaturation() {
+        return maxConcurrent > 0 ? (double) active.get() / maxConcurrent : 0;
+    }
+
+    public double getMaxWaitMs() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    public double getTotalWaitMs() {
+        return totalWaitNanos.get() / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return "Bulkhead{" + name + ": active=" + active.get() + "/" + (maxConcurrent > 0 ? maxConcurrent : "∞")
+                + ", waiting=" + waiting.get() + ", completed=" + completed.get() + ", rejected=" + rejected.get()
+                + ", maxWaitMs=" + getMaxWaitMs() + "}";
+    }
+}
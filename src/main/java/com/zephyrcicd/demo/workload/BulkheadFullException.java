@@ -0,0 +1,13 @@
+package com.zephyrcicd.demo.workload;
+
+/**
+ * 隔离舱已满（排队已满或等待超时）
+ *
+ * @author zephyr
+ */
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,68 @@
+package com.zephyrcicd.demo.workload;
+
+import com.zephyrcicd.demo.routing.DataSourceRoute;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 按负载类型划分的隔离舱
+ * <p>
+ * 所有 {@link com.zephyrcicd.tdengineorm.template.TdTemplate} 调用按类型进入对应的隔离舱，
+ * 例如报表的 partitionBy + intervalWindow 走 {@link WorkloadKind#SCAN}，写入走 {@link WorkloadKind#WRITE}。
+ * 扫描类并发受限后，慢报表只能占用有限的连接，写入始终有连接可用。
+ * 执行期间当前线程的 {@link DataSourceRoute} 为对应的负载类型，配置了独立连接池的负载类型从自己的连接池取连接
+ *
+ * @author zephyr
+ */
+public class WorkloadBulkheads {
+
+    private final Map<WorkloadKind, Bulkhead> bulkheads = new EnumMap<>(WorkloadKind.class);
+
+    public WorkloadBulkheads(WorkloadProperties properties) {
+        for (WorkloadKind kind : WorkloadKind.values()) {
+            WorkloadProperties.Limits limits = properties.get(kind);
+            bulkheads.put(kind, new Bulkhead(kind.name(),
+                    limits.getMaxConcurrent(), limits.getMaxQueue(), limits.getMaxWaitMs()));
+        }
+    }
+
+    /**
+     * 在指定负载类型的隔离舱内执行
+     *
+     * @param kind   负载类型
+     * @param action 操作
+     * @param <T>    返回值类型
+     * @return 操作结果
+     */
+    public <T> T execute(WorkloadKind kind, Supplier<T> action) {
+        return bulkheads.get(kind).execute(() -> DataSourceRoute.withWorkload(kind, action));
+    }
+
+    /**
+     * 在指定负载类型的隔离舱内执行（无返回值）
+     *
+     * @param kind   负载类型
+     * @param action 操作
+     */
+    public void run(WorkloadKind kind, Runnable action) {
+        execute(kind, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public Bulkhead get(WorkloadKind kind) {
+        return bulkheads.get(kind);
+    }
+
+    /**
+     * 各隔离舱的实时指标
+     */
+    public Collection<Bulkhead> getAll() {
+        return Collections.unmodifiableCollection(bulkheads.values());
+    }
+}
@@ -0,0 +1,26 @@
+package com.zephyrcicd.demo.workload;
+
+import com.zephyrcicd.tdengineorm.template.TdTemplate;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 负载隔离配置
+ *
+ * @author zephyr
+ */
+@Configuration
+@EnableConfigurationProperties(WorkloadProperties.class)
+public class WorkloadConfiguration {
+
+    @Bean
+    public WorkloadBulkheads workloadBulkheads(WorkloadProperties properties) {
+        return new WorkloadBulkheads(properties);
+    }
+
+    @Bean
+    public WorkloadTdTemplate workloadTdTemplate(TdTemplate tdTemplate, WorkloadBulkheads workloadBulkheads) {
+        return new WorkloadTdTemplate(tdTemplate, workloadBulkheads);
+    }
+}
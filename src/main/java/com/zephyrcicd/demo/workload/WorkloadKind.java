@@ -0,0 +1,24 @@
+package com.zephyrcicd.demo.workload;
+
+/**
+ * TDengine 访问的负载类型
+ *
+ * @author zephyr
+ */
+public enum WorkloadKind {
+
+    /**
+     * 写入
+     */
+    WRITE,
+
+    /**
+     * 点查：单设备、有 limit 的小范围查询
+     */
+    POINT_READ,
+
+    /**
+     * 扫描与聚合：超级表扫描、groupBy、partitionBy、时间窗口、COUNT(*) 等
+     */
+    SCAN
+}
@@ -0,0 +1,239 @@
+package com.zephyrcicd.demo.workload;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 负载隔离配置
+ * <p>
+ * 配置了 pool-size 的负载类型使用独立连接池，并发上限不能超过该连接池大小；
+ * 其余负载类型与写入共用 td-orm 数据源的连接池，共用的读并发之和需为写入保留 write-reserve 个连接，
+ * 启动时由 {@link #checkConnections(int)} 检查
+ *
+ * @author zephyr
+ */
+@ConfigurationProperties(prefix = "demo.workload")
+public class WorkloadProperties {
+
+    /**
+     * 写入：使用 td-orm 数据源的连接池
+     */
+    private Limits write = new Limits(8, 1000, 5000, 0);
+
+    /**
+     * 点查：独立连接池
+     */
+    private Limits pointRead = new Limits(16, 200, 2000, 16);
+
+    /**
+     * 扫描与聚合：独立连接池，慢报表只能占满自己的连接
+     */
+    private Limits scan = new Limits(4, 50, 30000, 4);
+
+    /**
+     * td-orm 数据源的连接池大小，小于等于 0 时从连接池读取（支持 HikariCP、Tomcat、DBCP2）
+     */
+    private int sharedPoolSize;
+
+    /**
+     * 共用连接池中为写入保留的连接数
+     */
+    private int writeReserve = 2;
+
+    public Limits get(WorkloadKind kind) {
+        switch (kind) {
+            case WRITE:
+                return write;
+            case POINT_READ:
+                return pointRead;
+            default:
+                return scan;
+        }
+    }
+
+    /**
+     * 检查并发上限与连接池大小
+     *
+     * @param sharedPoolSize td-orm 数据源的连接池大小，小于等于 0 表示未知，跳过与其相关的检查
+     * @throws IllegalStateException 配置会导致读负载占满写入所需的连接
+     */
+    public void checkConnections(int sharedPoolSize) {
+        List<String> problems = new ArrayList<>();
+        int sharedReads = 0;
+        for (WorkloadKind kind : WorkloadKind.values()) {
+            Limits limits = get(kind);
+            if (limits.getPoolSize() > 0) {
+                if (limits.getMaxConcurrent() <= 0 || limits.getMaxConcurrent() > limits.getPoolSize()) {
+                    problems.add(kind + " 使用独立连接池（pool-size=" + limits.getPoolSize()
+                            + "），max-concurrent 必须在 1 到 pool-size 之间，当前为 " + limits.getMaxConcurrent());
+                }
+            } else if (limits.getMaxConcurrent() <= 0) {
+                problems.add(kind + " 使用共用连接池，必须限制 max-concurrent");
+            } else if (kind != WorkloadKind.WRITE) {
+                sharedReads += limits.getMaxConcurrent();
+            }
+        }
+        if (sharedPoolSize > 0) {
+            int available = write.getPoolSize() > 0 ? sharedPoolSize : sharedPoolSize - writeReserve;
+            if (sharedReads > available) {
+                problems.add("共用连接池大小为 " + sharedPoolSize + "，读负载并发之和 " + sharedReads + " 超过可用的 "
+                        + available + " 个连接（写入保留 " + writeReserve + " 个），请增大连接池、降低并发或配置 pool-size");
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("负载隔离配置无效: " + String.join("; ", problems));
+        }
+    }
+
+    /**
+     * 各负载类型并发上限之和
+     */
+    public int getTotalConcurrency() {
+        int total = 0;
+        for (WorkloadKind kind : WorkloadKind.values()) {
+            total += Math.max(0, get(kind).getMaxConcurrent());
+        }
+        return total;
+    }
+
+    /**
+     * 检查分片集群的连接池：分片上所有负载共用一个连接池，读并发之和需为写入保留 write-reserve 个连接
+     *
+     * @param shard    分片名称
+     * @param poolSize 连接池大小
+     * @throws IllegalStateException 连接池过小
+     */
+    public void checkShardPool(String shard, int poolSize) {
+        int reads = Math.max(0, pointRead.getMaxConcurrent()) + Math.max(0, scan.getMaxConcurrent());
+        if (reads + writeReserve > poolSize) {
+            throw new IllegalStateException("分片 " + shard + " 的连接池大小为 " + poolSize + "，读负载并发之和 " + reads
+                    + " 加写入保留的 " + writeReserve + " 个连接超过连接池大小");
+        }
+    }
+
+    public Limits getWrite() {
+        return write;
+    }
+
+    public void setWrite(Limits write) {
+        this.write = write;
+    }
+
+    public Limits getPointRead() {
+        return pointRead;
+    }
+
+    public void setPointRead(Limits pointRead) {
+        this.pointRead = pointRead;
+    }
+
+    public Limits getScan() {
+        return scan;
+    }
+
+    public void setScan(Limits scan) {
+        this.scan = scan;
+    }
+
+    public int getSharedPoolSize() {
+        return sharedPoolSize;
+    }
+
+    public void setSharedPoolSize(int sharedPoolSize) {
+        this.sharedPoolSize = sharedPoolSize;
+    }
+
+    public int getWriteReserve() {
+        return writeReserve;
+    }
+
+    public void setWriteReserve(int writeReserve) {
+        this.writeReserve = writeReserve;
+    }
+
+    public static class Limits {
+
+        /**
+         * 最大并发数，小于等于 0 表示不限制
+         */
+        private int maxConcurrent;
+
+        /**
+         * 最大排队数
+         */
+        private int maxQueue;
+
+        /**
+         * 最长排队等待时间（毫秒）
+         */
+        private long maxWaitMs;
+
+        /**
+         * 独立连接池大小，小于等于 0 表示使用 td-orm 数据源的连接池
+         */
+        private int poolSize;
+
+        /**
+         * 独立连接池的其他参数，按连接池类型的属性名（短横线格式）绑定，如 connection-timeout
+         */
+        private Map<String, String> poolProperties = new LinkedHashMap<>();
+
+        public Limits() {
+        }
+
+        public Limits(int maxConcurrent, int maxQueue, long maxWaitMs) {
+            this(maxConcurrent, maxQueue, maxWaitMs, 0);
+        }
+
+        public Limits(int maxConcurrent, int maxQueue, long maxWaitMs, int poolSize) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueue = maxQueue;
+            this.maxWaitMs = maxWaitMs;
+            this.poolSize = poolSize;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getMaxQueue() {
+            return maxQueue;
+        }
+
+        public void setMaxQueue(int maxQueue) {
+            this.maxQueue = maxQueue;
+        }
+
+        public long getMaxWaitMs() {
+            return maxWaitMs;
+        }
+
+        public void setMaxWaitMs(long maxWaitMs) {
+            this.maxWaitMs = maxWaitMs;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public Map<String, String> getPoolProperties() {
+            return poolProperties;
+        }
+
+        public void setPoolProperties(Map<String, String> poolProperties) {
+            this.poolProperties = poolProperties;
+        }
+    }
+}
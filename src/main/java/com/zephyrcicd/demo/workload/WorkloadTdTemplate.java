@@ -0,0 +1,89 @@
+package com.zephyrcicd.demo.workload;
+
+import com.zephyrcicd.tdengineorm.dto.Page;
+import com.zephyrcicd.tdengineorm.template.TdTemplate;
+import com.zephyrcicd.tdengineorm.wrapper.TdQueryWrapper;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按负载类型进入隔离舱的 {@link TdTemplate} 查询入口
+ * <p>
+ * 报表、统计等分析查询（partitionBy + intervalWindow、按位置 groupBy 等）应通过本类执行并显式指定
+ * {@link WorkloadKind}，直接调用 TdTemplate 的查询不受隔离舱限制
+ *
+ * @author zephyr
+ */
+public class WorkloadTdTemplate {
+
+    private final TdTemplate tdTemplate;
+    private final WorkloadBulkheads bulkheads;
+
+    public WorkloadTdTemplate(TdTemplate tdTemplate, WorkloadBulkheads bulkheads) {
+        this.tdTemplate = tdTemplate;
+        this.bulkheads = bulkheads;
+    }
+
+    /**
+     * 查询实体列表
+     *
+     * @param kind    负载类型
+     * @param wrapper 查询条件
+     * @param <T>     实体类型
+     * @return 实体列表
+     */
+    public <T> List<T> list(WorkloadKind kind, TdQueryWrapper<T> wrapper) {
+        return bulkheads.execute(kind, () -> tdTemplate.list(wrapper));
+    }
+
+    /**
+     * 查询 Map 列表，适用于聚合结果
+     *
+     * @param kind    负载类型
+     * @param wrapper 查询条件
+     * @param <T>     实体类型
+     * @return 结果列表
+     */
+    public <T> List<Map<String, Object>> listAsMap(WorkloadKind kind, TdQueryWrapper<T> wrapper) {
+        return bulkheads.execute(kind, () -> tdTemplate.listAsMap(wrapper));
+    }
+
+    /**
+     * 查询单个实体
+     *
+     * @param kind    负载类型
+     * @param wrapper 查询条件
+     * @param <T>     实体类型
+     * @return 实体，无数据时返回 null
+     */
+    public <T> T getOne(WorkloadKind kind, TdQueryWrapper<T> wrapper) {
+        return bulkheads.execute(kind, () -> tdTemplate.getOne(wrapper));
+    }
+
+    /**
+     * 统计行数
+     *
+     * @param kind    负载类型
+     * @param wrapper 查询条件
+     * @param <T>     实体类型
+     * @return 行数
+     */
+    public <T> Long count(WorkloadKind kind, TdQueryWrapper<T> wrapper) {
+        return bulkheads.execute(kind, () -> tdTemplate.count(wrapper));
+    }
+
+    /**
+     * 分页查询
+     *
+     * @param kind     负载类型
+     * @param pageNo   页码（从1开始）
+     * @param pageSize 每页大小
+     * @param wrapper  查询条件
+     * @param <T>      实体类型
+     * @return 分页结果
+     */
+    public <T> Page<T> page(WorkloadKind kind, Long pageNo, Long pageSize, TdQueryWrapper<T> wrapper) {
+        return bulkheads.execute(kind, () -> tdTemplate.page(pageNo, pageSize, wrapper));
+    }
+}
@@ -0,0 +1,122 @@
+package com.zephyrcicd.demo.alert;
+
+import com.zephyrcicd.demo.entity.SensorData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 告警规则评估测试（不依赖 TDengine）
+ *
+ * @author zephyr
+ */
+class AlertEvaluatorTest {
+
+    private static SensorData data(String deviceId, long ts, double temperature, int status) {
+        return SensorData.builder()
+                .deviceId(deviceId)
+                .ts(ts)
+                .temperature(temperature)
+                .status(status)
+                .build();
+    }
+
+    @Test
+    @DisplayName("阈值规则边沿触发")
+    void testThresholdFiresOnceUntilRecovered() {
+        AlertEvaluator evaluator = new AlertEvaluator(Collections.singletonList(
+                ThresholdRule.above("temp", "temperature", SensorData::getTemperature, 30.0)));
+
+        List<AlertEvent> events = evaluator.evaluate(Arrays.asList(
+                data("device001", 1000, 31, 0),
+                data("device001", 2000, 32, 0),
+                data("device001", 3000, 25, 0),
+                data("device001", 4000, 33, 0)));
+
+        assertEquals(2, events.size());
+        assertEquals(1000L, events.get(0).getTs().longValue());
+        assertEquals(4000L, events.get(1).getTs().longValue());
+    }
+
+    @Test
+    @DisplayName("持续规则按设备独立计时")
+    void testSustainedPerDevice() {
+        ThresholdRule condition = ThresholdRule.above("temp", "temperature", SensorData::getTemperature, 30.0);
+        AlertEvaluator evaluator = new AlertEvaluator(Collections.singletonList(
+                new SustainedRule("temp-sustained", condition, 2000)));
+
+        List<AlertEvent> events = evaluator.evaluate(Arrays.asList(
+                data("device001", 1000, 31, 0),
+                data("device002", 1000, 31, 0),
+                data("device001", 2000, 31, 0),
+                data("device002", 2000, 20, 0),
+                data("device001", 3000, 31, 0),
+                data("device002", 3000, 31, 0),
+                data("device001", 4000, 31, 0)));
+
+        assertEquals(1, events.size());
+        assertEquals("device001", events.get(0).getDeviceId());
+        assertEquals(3000L, events.get(0).getTs().longValue());
+        assertEquals(2, evaluator.getDeviceCount());
+    }
+
+    @Test
+    @DisplayName("变化率规则忽略乱序数据")
+    void testRateOfChange() {
+        AlertEvaluator evaluator = new AlertEvaluator(Collections.singletonList(
+                new RateOfChangeRule("temp-rate", "temperature", SensorData::getTemperature, 2.0)));
+
+        List<AlertEvent> events = evaluator.evaluate(Arrays.asList(
+                data("device001", 1000, 20, 0),
+                data("device001", 2000, 21, 0),
+                data("device001", 1500, 40, 0),
+                data("device001", 3000, 25, 0)));
+
+        assertEquals(1, events.size());
+        assertEquals(3000L, events.get(0).getTs().longValue());
+    }
+
+    @Test
+    @DisplayName("状态变化规则")
+    void testStatusTransition() {
+        AlertEvaluator evaluator = new AlertEvaluator(Arrays.asList(
+                new StatusTransitionRule("alarm", 0, 1),
+                new StatusTransitionRule("fault", null, 2)));
+
+        List<AlertEvent> events = evaluator.evaluate(Arrays.asList(
+                data("device001", 1000, 20, 1),
+                data("device001", 2000, 20, 0),
+                data("device001", 3000, 20, 1),
+                data("device001", 4000, 20, 1),
+                data("device001", 5000, 20, 2)));
+
+        assertEquals(2, events.size());
+        assertEquals("alarm", events.get(0).getRuleName());
+        assertEquals(3000L, events.get(0).getTs().longValue());
+        assertEquals("fault", events.get(1).getRuleName());
+        assertEquals(5000L, events.get(1).getTs().longValue());
+    }
+
+    @Test
+    @DisplayName("空闲设备状态被清除，再次上报时重新开始")
+    void testEvictIdleDevices() {
+        AlertEvaluator evaluator = new AlertEvaluator(Collections.singletonList(
+                ThresholdRule.above("temp", "temperature", SensorData::getTemperature, 30.0)), 60_000);
+        long now = System.currentTimeMillis();
+
+        assertEquals(1, evaluator.evaluate(Collections.singletonList(data("device001", 1000, 31, 0)), now).size());
+        evaluator.evaluate(Collections.singletonList(data("device002", 1000, 20, 0)), now + 30_000);
+        assertEquals(2, evaluator.getDeviceCount());
+
+        // device001 空闲满 60s 后在下一次评估时被清除，device002 仍在空闲期内
+        assertEquals(1, evaluator.evaluate(Collections.singletonList(data("device001", 2000, 31, 0)), now + 60_000).size());
+        assertEquals(2, evaluator.getDeviceCount());
+        assertEquals(1, evaluator.evictIdle(now + 100_000));
+        assertEquals(1, evaluator.getDeviceCount());
+    }
+}
@@ -0,0 +1,150 @@
+package com.zephyrcicd.demo.bootstrap;
+
+import com.zephyrcicd.demo.entity.SensorData;
+import com.zephyrcicd.demo.util.JdbcUrls;
+import com.zephyrcicd.tdengineorm.annotation.TdColumn;
+import com.zephyrcicd.tdengineorm.annotation.TdTable;
+import com.zephyrcicd.tdengineorm.annotation.TdTag;
+import com.zephyrcicd.tdengineorm.enums.TdFieldTypeEnum;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 实体元数据缓存与表结构检查测试
+ *
+ * @author zephyr
+ */
+class SchemaBootstrapTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("实体元数据解析并缓存")
+    void testEntityMetadata() {
+        EntityMetadata metadata = EntityMetadata.of(SensorData.class);
+        assertSame(metadata, EntityMetadata.of(SensorData.class));
+        assertEquals("sensors", metadata.getTableName());
+        assertEquals(9, metadata.getColumns().size());
+        assertEquals(3, metadata.getColumns().stream().filter(ColumnMetadata::isTag).count());
+
+        ColumnMetadata ts = metadata.getColumns().stream()
+                .filter(column -> "ts".equals(column.getColumnName()))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+        assertEquals("TIMESTAMP", ts.getType());
+        assertFalse(ts.isTag());
+        assertEquals(32, metadata.getFingerprint().length());
+    }
+
+    @Test
+    @DisplayName("实体定义变化时指纹变化")
+    void testFingerprintChanges() {
+        EntityMetadata original = EntityMetadata.of(SensorData.class);
+        EntityMetadata changed = EntityMetadata.of(ChangedSensorData.class);
+        assertEquals(original.getTableName(), changed.getTableName());
+        assertNotEquals(original.getFingerprint(), changed.getFingerprint());
+    }
+
+    @Test
+    @DisplayName("只对缺失的超级表建表，已存在但定义变化的报告漂移")
+    void testPlan() {
+        EntityMetadata sensors = EntityMetadata.of(SensorData.class);
+        EntityMetadata meters = EntityMetadata.of(MeterData.class);
+        List<EntityMetadata> all = Arrays.asList(sensors, meters);
+
+        Map<String, String> cached = new HashMap<>();
+        cached.put("sensors", sensors.getFingerprint());
+        SchemaBootstrap.SchemaPlan plan = SchemaBootstrap.plan(all, new HashSet<>(Collections.singletonList("sensors")),
+                cached::get);
+        assertEquals(Collections.singletonList(meters), plan.getToCreate());
+        assertTrue(plan.getDrifted().isEmpty());
+
+        cached.put("sensors", "stale");
+        plan = SchemaBootstrap.plan(all, new HashSet<>(Arrays.asList("sensors", "meters")), cached::get);
+        assertTrue(plan.getToCreate().isEmpty());
+        assertEquals(Collections.singletonList(sensors), plan.getDrifted());
+
+        plan = SchemaBootstrap.plan(all, null, cached::get);
+        assertEquals(all, plan.getToCreate());
+    }
+
+    @Test
+    @DisplayName("漂移的指纹在确认前不写回缓存")
+    void testDriftedFingerprintKept() {
+        EntityMetadata sensors = EntityMetadata.of(SensorData.class);
+        EntityMetadata meters = EntityMetadata.of(MeterData.class);
+        List<EntityMetadata> all = Arrays.asList(sensors, meters);
+        Map<String, String> cached = Collections.singletonMap("sensors", "stale");
+
+        Map<String, String> stored = SchemaBootstrap.fingerprintsToStore(all, cached::get, Collections.emptyMap());
+        assertEquals(Collections.singletonMap("meters", meters.getFingerprint()), stored);
+
+        stored = SchemaBootstrap.fingerprintsToStore(all, cached::get,
+                Collections.singletonMap("sensors", "other"));
+        assertFalse(stored.containsKey("sensors"));
+
+        stored = SchemaBootstrap.fingerprintsToStore(all, cached::get,
+                Collections.singletonMap("sensors", sensors.getFingerprint()));
+        assertEquals(sensors.getFingerprint(), stored.get("sensors"));
+    }
+
+    @Test
+    @DisplayName("指纹文件按数据源隔离并在重启后保留")
+    void testFingerprintStore() {
+        Path file = tempDir.resolve("schema.fingerprint");
+        String a = JdbcUrls.targetId("jdbc:TAOS-RS://a:6041/demo?user=root&password=secret");
+        new SchemaFingerprintStore(file, a).putAll(Collections.singletonMap("sensors", "abc"));
+
+        assertEquals("abc", new SchemaFingerprintStore(file, a).get("sensors"));
+        assertEquals("abc", new SchemaFingerprintStore(file, JdbcUrls.targetId("jdbc:TAOS-RS://a:6041/demo"))
+                .get("sensors"));
+        assertNull(new SchemaFingerprintStore(file, JdbcUrls.targetId("jdbc:TAOS-RS://b:6041/demo")).get("sensors"));
+    }
+
+    @Test
+    @DisplayName("指纹文件不保留以完整连接 URL 记录的旧条目")
+    void testFingerprintStoreDropsUrlScopes() throws IOException {
+        Path file = tempDir.resolve("schema.fingerprint");
+        Files.write(file, Collections.singletonList(
+                "jdbc\\:TAOS-RS\\://a\\:6041/demo?user\\=root&password\\=secret#sensors=abc"));
+        String a = JdbcUrls.targetId("jdbc:TAOS-RS://a:6041/demo");
+        new SchemaFingerprintStore(file, a).putAll(Collections.singletonMap("meters", "def"));
+
+        String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        assertFalse(content.contains("secret"));
+        assertEquals("def", new SchemaFingerprintStore(file, a).get("meters"));
+    }
+
+    @TdTable("sensors")
+    static class ChangedSensorData extends SensorData {
+
+        @TdColumn(value = "pressure", type = TdFieldTypeEnum.DOUBLE)
+        private Double pressure;
+    }
+
+    @TdTable("meters")
+    static class MeterData {
+
+        @TdTag
+        @TdColumn(value = "meter_id", length = 32)
+        private String meterId;
+
+        @TdColumn(value = "ts", type = TdFieldTypeEnum.TIMESTAMP)
+        private Long ts;
+    }
+}
@@ -0,0 +1,58 @@
+package com.zephyrcicd.demo.count;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.zephyrcicd.demo.count.HourlyCountIndex.HOUR_MS;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 小时计数索引测试（不依赖 TDengine）
+ *
+ * @author zephyr
+ */
+class HourlyCountIndexTest {
+
+    private static final long BASE = 480_000 * HOUR_MS;
+
+    @Test
+    @DisplayName("按设备、整点范围统计")
+    void testCountByDeviceAndRange() {
+        HourlyCountIndex index = new HourlyCountIndex();
+        index.increment("device001", BASE);
+        index.increment("device001", BASE + HOUR_MS - 1);
+        index.increment("device001", BASE + HOUR_MS);
+        index.increment("device002", BASE + 2 * HOUR_MS);
+
+        assertEquals(3, index.count("device001", null, null));
+        assertEquals(2, index.count("device001", BASE, BASE + HOUR_MS));
+        assertEquals(1, index.count("device001", BASE + HOUR_MS, null));
+        assertEquals(4, index.count(null, null, null));
+        assertEquals(2, index.count(null, BASE + HOUR_MS, BASE + 3 * HOUR_MS));
+        assertEquals(0, index.count("device003", null, null));
+    }
+
+    @Test
+    @DisplayName("向过去和未来两端扩容")
+    void testGrowInBothDirections() {
+        HourlyCountIndex index = new HourlyCountIndex();
+        index.increment("device001", BASE);
+        index.add("device001", HourlyCountIndex.hourOf(BASE) - 1000, 5);
+        index.add("device001", HourlyCountIndex.hourOf(BASE) + 1000, 7);
+
+        assertEquals(13, index.count("device001", null, null));
+        assertEquals(5, index.count("device001", null, BASE));
+        assertEquals(7, index.count("device001", BASE + 1000 * HOUR_MS, BASE + 1001 * HOUR_MS));
+        assertEquals(5, index.count("device001", BASE - 1000 * HOUR_MS, BASE - 999 * HOUR_MS));
+    }
+
+    @Test
+    @DisplayName("整点对齐判断")
+    void testAlignment() {
+        assertTrue(HourlyCountIndex.isAligned(BASE));
+        assertFalse(HourlyCountIndex.isAligned(BASE + 1));
+        assertTrue(new SensorCountQuery("device001", BASE, BASE + HOUR_MS).isHourAligned());
+        assertFalse(new SensorCountQuery("device001", BASE, BASE + 1000).isHourAligned());
+        assertTrue(SensorCountQuery.ofDevice("device001").isHourAligned());
+    }
+}
@@ -0,0 +1,129 @@
+package com.zephyrcicd.demo.count;
+
+import com.zephyrcicd.demo.entity.SensorData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.zephyrcicd.demo.count.HourlyCountIndex.HOUR_MS;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 计数索引回填与写入合并测试（不依赖 TDengine）
+ *
+ * @author zephyr
+ */
+class SensorCountIndexTest {
+
+    @Test
+    @DisplayName("回填期间的写入：截止时间之后的计入新索引，之前的由回填结果覆盖")
+    void testBackfillMergesConcurrentWrites() throws Exception {
+        CountDownLatch querying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        long[] cutoff = new long[1];
+        SensorQueries queries = new StubQueries() {
+            @Override
+            public List<Map<String, Object>> hourlyCounts(long value) {
+                cutoff[0] = value;
+                querying.countDown();
+                await(release);
+                // 数据库中截止时间之前的数据：device001 的上一小时 5 条
+                return Collections.singletonList(row("device001", value - HOUR_MS, 5));
+            }
+        };
+        SensorCountIndex index = new SensorCountIndex(queries, () -> { });
+
+        CompletableFuture<Boolean> rebuild = CompletableFuture.supplyAsync(index::rebuild);
+        assertTrue(querying.await(5, TimeUnit.SECONDS));
+        assertFalse(index.isReady());
+        index.onWritten(Collections.singletonList(data("device001", cutoff[0] + 1)));
+        index.onWritten(Collections.singletonList(data("device001", cutoff[0] - 1)));
+        release.countDown();
+        assertTrue(rebuild.get(5, TimeUnit.SECONDS));
+
+        assertTrue(index.isReady());
+        assertEquals(6L, index.count(SensorCountQuery.ofDevice("device001")));
+    }
+
+    @Test
+    @DisplayName("回填前确保表结构，失败后索引不可用")
+    void testRebuildFailureMarksNotReady() {
+        List<String> calls = new ArrayList<>();
+        boolean[] fail = {false};
+        SensorQueries queries = new StubQueries() {
+            @Override
+            public List<Map<String, Object>> hourlyCounts(long cutoff) {
+                calls.add("backfill");
+                if (fail[0]) {
+                    throw new IllegalStateException("模拟回填失败");
+                }
+                return Collections.emptyList();
+            }
+        };
+        SensorCountIndex index = new SensorCountIndex(queries, () -> calls.add("ensure"));
+
+        assertTrue(index.rebuild());
+        assertEquals(Arrays.asList("ensure", "backfill"), calls);
+        assertTrue(index.canAnswer(SensorCountQuery.ofDevice("device001")));
+
+        fail[0] = true;
+        assertFalse(index.rebuild());
+        assertFalse(index.isReady());
+        assertFalse(index.canAnswer(SensorCountQuery.ofDevice("device001")));
+    }
+
+    static SensorData data(String deviceId, long ts) {
+        return SensorData.builder().deviceId(deviceId).ts(ts).build();
+    }
+
+    private static Map<String, Object> row(String deviceId, long windowStart, long count) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("device_id", deviceId);
+        row.put("window_start", windowStart);
+        row.put("c", count);
+        return row;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 默认不支持任何查询，测试按需覆盖
+     */
+    static class StubQueries implements SensorQueries {
+
+        @Override
+        public long count(SensorCountQuery query) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<SensorData> latest(SensorCountQuery query, int limit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CountedPage<SensorData> page(long pageNo, long pageSize, SensorCountQuery query) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Map<String, Object>> hourlyCounts(long cutoff) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
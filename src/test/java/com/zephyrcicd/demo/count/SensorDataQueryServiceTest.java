@@ -0,0 +1,87 @@
+package com.zephyrcicd.demo.count;
+
+import com.zephyrcicd.demo.entity.SensorData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static com.zephyrcicd.demo.count.HourlyCountIndex.HOUR_MS;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 计数与分页在索引和数据库之间的选择（不依赖 TDengine）
+ *
+ * @author zephyr
+ */
+class SensorDataQueryServiceTest {
+
+    private static final long BASE = 480_000 * HOUR_MS;
+
+    private final List<String> calls = new ArrayList<>();
+
+    private final SensorQueries queries = new SensorCountIndexTest.StubQueries() {
+        @Override
+        public long count(SensorCountQuery query) {
+            calls.add("count");
+            return 100;
+        }
+
+        @Override
+        public List<SensorData> latest(SensorCountQuery query, int limit) {
+            calls.add("latest:" + limit);
+            return Collections.singletonList(SensorCountIndexTest.data("device001", BASE));
+        }
+
+        @Override
+        public CountedPage<SensorData> page(long pageNo, long pageSize, SensorCountQuery query) {
+            calls.add("page:" + pageNo);
+            return new CountedPage<>(100, pageNo, pageSize, Collections.emptyList(), false);
+        }
+
+        @Override
+        public List<Map<String, Object>> hourlyCounts(long cutoff) {
+            return Collections.emptyList();
+        }
+    };
+
+    @Test
+    @DisplayName("未启用索引时计数与分页都查询数据库")
+    void testWithoutIndex() {
+        SensorDataQueryService service = new SensorDataQueryService(queries, () -> null);
+        assertEquals(100L, service.count(SensorCountQuery.ofDevice("device001")));
+        assertFalse(service.page(1, 20, SensorCountQuery.ofDevice("device001")).isFromIndex());
+        assertEquals(Arrays.asList("count", "page:1"), calls);
+    }
+
+    @Test
+    @DisplayName("索引只回答整点对齐的计数与第一页")
+    void testIndexChoice() {
+        SensorCountIndex index = new SensorCountIndex(queries, () -> { });
+        SensorDataQueryService service = new SensorDataQueryService(queries, () -> index);
+
+        // 未就绪
+        service.count(SensorCountQuery.ofDevice("device001"));
+        assertEquals(Collections.singletonList("count"), calls);
+
+        assertTrue(index.rebuild());
+        index.onWritten(Collections.singletonList(SensorCountIndexTest.data("device001", BASE + 10)));
+        calls.clear();
+
+        assertEquals(1L, service.count(new SensorCountQuery("device001", BASE, BASE + HOUR_MS)));
+        assertEquals(100L, service.count(new SensorCountQuery("device001", BASE + 1, BASE + HOUR_MS)));
+        assertEquals(Collections.singletonList("count"), calls);
+        calls.clear();
+
+        CountedPage<SensorData> first = service.page(1, 20, SensorCountQuery.ofDevice("device001"));
+        assertTrue(first.isFromIndex());
+        assertEquals(1L, first.getTotal());
+        CountedPage<SensorData> second = service.page(2, 20, SensorCountQuery.ofDevice("device001"));
+        assertFalse(second.isFromIndex());
+        assertEquals(Arrays.asList("latest:20", "page:2"), calls);
+    }
+}
@@ -0,0 +1,72 @@
+package com.zephyrcicd.demo.ingest;
+
+import com.zephyrcicd.demo.alert.AlertEvent;
+import com.zephyrcicd.demo.alert.AlertListener;
+import com.zephyrcicd.demo.entity.SensorData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 经 SensorDataWriter 写入时触发写入时告警（需要 TDengine）
+ *
+ * @author zephyr
+ */
+@SpringBootTest(properties = "demo.alert.enabled=true")
+class SensorDataWriterTest {
+
+    @Autowired
+    private SensorDataWriter sensorDataWriter;
+
+    @Autowired
+    private RecordingAlertListener alertListener;
+
+    @Test
+    @DisplayName("写入入口通知告警引擎，状态变为故障时触发告警")
+    void testWriteTriggersAlert() {
+        String deviceId = "alert_" + System.currentTimeMillis();
+        long ts = System.currentTimeMillis() - 10_000;
+        List<SensorData> dataList = Arrays.asList(
+                SensorData.builder().deviceId(deviceId).location("Beijing").deviceType("温度传感器")
+                        .ts(ts).temperature(25.0).humidity(50.0).voltage(3.3f).status(0).remark("正常").build(),
+                SensorData.builder().deviceId(deviceId).location("Beijing").deviceType("温度传感器")
+                        .ts(ts + 1000).temperature(25.0).humidity(50.0).voltage(3.3f).status(2).remark("设备故障").build());
+
+        sensorDataWriter.batchInsert(dataList);
+
+        List<String> rules = alertListener.events.stream()
+                .filter(event -> deviceId.equals(event.getDeviceId()))
+                .map(AlertEvent::getRuleName)
+                .collect(Collectors.toList());
+        assertTrue(rules.contains("status-fault"), "未收到故障告警: " + rules);
+    }
+
+    @TestConfiguration
+    static class AlertListenerConfiguration {
+
+        @Bean
+        RecordingAlertListener recordingAlertListener() {
+            return new RecordingAlertListener();
+        }
+    }
+
+    static class RecordingAlertListener implements AlertListener {
+
+        private final List<AlertEvent> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onAlert(AlertEvent event) {
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.zephyrcicd.demo.routing;
+
+import com.zephyrcicd.demo.shard.ShardingProperties;
+import com.zephyrcicd.demo.workload.WorkloadBulkheads;
+import com.zephyrcicd.demo.workload.WorkloadKind;
+import com.zephyrcicd.demo.workload.WorkloadProperties;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 数据源路由测试（以本地替身数据源代替连接池，不依赖 TDengine）
+ *
+ * @author zephyr
+ */
+class RoutingDataSourcePostProcessorTest {
+
+    @Test
+    @DisplayName("按负载类型创建独立连接池，隔离舱内的 getConnection 路由到对应连接池")
+    void testRouteByWorkload() throws Throwable {
+        WorkloadProperties properties = new WorkloadProperties();
+        RoutingDataSourcePostProcessor processor = new RoutingDataSourcePostProcessor(properties, connection(),
+                new ShardingProperties());
+        StubDataSource primary = new StubDataSource("primary", 10);
+        processor.postProcessAfterInitialization(primary, "dataSource");
+
+        RoutedDataSources routes = processor.getRoutes();
+        MethodInterceptor advice = RoutingDataSourcePostProcessor.routingAdvice(routes);
+        WorkloadBulkheads bulkheads = new WorkloadBulkheads(properties);
+
+        assertEquals("primary", connectionName(advice, primary));
+        assertEquals("primary", bulkheads.execute(WorkloadKind.WRITE, () -> connectionName(advice, primary)));
+        DataSource scanPool = bulkheads.execute(WorkloadKind.SCAN, routes::select);
+        DataSource pointReadPool = bulkheads.execute(WorkloadKind.POINT_READ, routes::select);
+        assertNotNull(scanPool);
+        assertNotNull(pointReadPool);
+        assertNotSame(scanPool, pointReadPool);
+        assertNotSame(primary, scanPool);
+
+        // 替身连接池记录自己的名称，经路由取得的连接来自对应的连接池
+        ((StubDataSource) scanPool).name = "scan";
+        assertEquals("scan", bulkheads.execute(WorkloadKind.SCAN, () -> connectionName(advice, primary)));
+        processor.destroy();
+    }
+
+    @Test
+    @DisplayName("读负载会占满写入连接时启动失败")
+    void testRejectStarvingConfiguration() {
+        WorkloadProperties properties = new WorkloadProperties();
+        properties.getPointRead().setPoolSize(0);
+        RoutingDataSourcePostProcessor processor = new RoutingDataSourcePostProcessor(properties, connection(),
+                new ShardingProperties());
+        assertThrows(IllegalStateException.class,
+                () -> processor.postProcessAfterInitialization(new StubDataSource("primary", 10), "dataSource"));
+    }
+
+    @Test
+    @DisplayName("按分片路由到各集群的连接池，td-orm 数据源所在分片按负载类型路由")
+    void testRouteByShard() {
+        WorkloadProperties properties = new WorkloadProperties();
+        ShardingProperties sharding = new ShardingProperties();
+        sharding.setEnabled(true);
+        sharding.getShards().add(shard("east"));
+        sharding.getShards().add(shard("west"));
+        RoutingDataSourcePostProcessor processor = new RoutingDataSourcePostProcessor(properties, connection(),
+                sharding);
+        StubDataSource primary = new StubDataSource("primary", 10);
+        processor.postProcessAfterInitialization(primary, "dataSource");
+
+        RoutedDataSources routes = processor.getRoutes();
+        MethodInterceptor advice = RoutingDataSourcePostProcessor.routingAdvice(routes);
+        WorkloadBulkheads bulkheads = new WorkloadBulkheads(properties);
+        assertTrue(routes.canRoute("primary"));
+        assertTrue(routes.canRoute("east"));
+        assertFalse(routes.canRoute("north"));
+
+        DataSource east = DataSourceRoute.withShard("east", routes::select);
+        DataSource west = DataSourceRoute.withShard("west", routes::select);
+        assertNotSame(east, west);
+        ((StubDataSource) east).name = "east";
+        ((StubDataSource) west).name = "west";
+        ((StubDataSource) bulkheads.execute(WorkloadKind.SCAN, routes::select)).name = "scan";
+
+        // 分片连接池不随负载类型变化，td-orm 数据源所在分片仍按负载类型选择
+        assertEquals("east", DataSourceRoute.withShard("east", () -> connectionName(advice, primary)));
+        assertEquals("west", bulkheads.execute(WorkloadKind.SCAN,
+                () -> DataSourceRoute.withShard("west", () -> connectionName(advice, primary))));
+        assertEquals("scan", DataSourceRoute.withShard("primary",
+                () -> bulkheads.execute(WorkloadKind.SCAN, () -> connectionName(advice, primary))));
+        assertEquals("primary", DataSourceRoute.withShard("primary", () -> connectionName(advice, primary)));
+        assertThrows(IllegalStateException.class,
+                () -> DataSourceRoute.withShard("north", () -> connectionName(advice, primary)));
+        processor.destroy();
+    }
+
+    private static ShardingProperties.Shard shard(String name) {
+        ShardingProperties.Shard shard = new ShardingProperties.Shard();
+        shard.setName(name);
+        shard.setUrl("jdbc:TAOS-RS://" + name + ":6041/td_orm_demo");
+        return shard;
+    }
+
+    private static ConnectionSettings connection() {
+        ConnectionSettings connection = new ConnectionSettings();
+        connection.setUrl("jdbc:TAOS-RS://localhost:6041/td_orm_demo");
+        return connection;
+    }
+
+    private static String connectionName(MethodInterceptor advice, StubDataSource primary) {
+        try {
+            Method getConnection = DataSource.class.getMethod("getConnection");
+            return advice.invoke(new Invocation(getConnection, primary)).toString();
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 直接调用目标对象的方法调用
+     */
+    private static final class Invocation implements MethodInvocation {
+
+        private final Method method;
+        private final Object target;
+
+        private Invocation(Method method, Object target) {
+            this.method = method;
+            this.target = target;
+        }
+
+        @Override
+        public Method getMethod() {
+            return method;
+        }
+
+        @Override
+        public Object[] getArguments() {
+            return new Object[0];
+        }
+
+        @Override
+        public Object proceed() throws Throwable {
+            return method.invoke(target);
+        }
+
+        public Object getThis() {
+            return target;
+        }
+
+        public AccessibleObject getStaticPart() {
+            return method;
+        }
+    }
+
+    /**
+     * 替身连接池：取得的连接的 toString 为连接池名称
+     */
+    public static class StubDataSource implements DataSource {
+
+        private String name;
+        private int maximumPoolSize;
+
+        public StubDataSource() {
+            this("pool", 0);
+        }
+
+        StubDataSource(String name, int maximumPoolSize) {
+            this.name = name;
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        @Override
+        public Connection getConnection() {
+            String connectionName = name;
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if ("toString".equals(method.getName())) {
+                            return connectionName;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) {
+            return getConnection();
+        }
+
+        @Override
+        public PrintWriter getLogWriter() {
+            return null;
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) {
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) {
+        }
+
+        @Override
+        public int getLoginTimeout() {
+            return 0;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            throw new SQLException("not a wrapper");
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package com.zephyrcicd.demo.shard;
+
+import com.zephyrcicd.demo.entity.SensorData;
+import com.zephyrcicd.demo.util.TestDataGenerator;
+import com.zephyrcicd.demo.workload.WorkloadKind;
+import com.zephyrcicd.tdengineorm.dto.Page;
+import com.zephyrcicd.tdengineorm.wrapper.TdQueryWrapper;
+import com.zephyrcicd.tdengineorm.wrapper.TdWrappers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 分片路由测试，使用内存分片代替 TDengine 集群
+ *
+ * @author zephyr
+ */
+class ShardedSensorRouterTest {
+
+    @Test
+    @DisplayName("一致性哈希：分布均匀，增加节点只迁移到新节点")
+    void testConsistentHashRing() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(160, Arrays.asList("a", "b", "c"));
+        ConsistentHashRing<String> grown = new ConsistentHashRing<>(160, Arrays.asList("a", "b", "c", "d"));
+        Map<String, Integer> counts = new HashMap<>();
+        int moved = 0;
+        int total = 3000;
+        for (int i = 0; i < total; i++) {
+            String deviceId = String.format("device%05d", i);
+            String owner = ring.locate(deviceId);
+            counts.merge(owner, 1, Integer::sum);
+            String newOwner = grown.locate(deviceId);
+            if (!owner.equals(newOwner)) {
+                assertEquals("d", newOwner);
+                moved++;
+            }
+        }
+        for (int count : counts.values()) {
+            assertTrue(count > total / 3 * 0.7 && count < total / 3 * 1.3, "分布不均: " + counts);
+        }
+        assertTrue(moved > total / 4 * 0.6 && moved < total / 4 * 1.4, "迁移数量异常: " + moved);
+    }
+
+    @Test
+    @DisplayName("写入按设备路由到唯一分片")
+    void testBatchInsertRouting() {
+        List<MemoryShard> shards = Arrays.asList(new MemoryShard("a"), new MemoryShard("b"), new MemoryShard("c"));
+        try (ShardedSensorRouter router = new ShardedSensorRouter(shards, Arrays.asList("a", "b", "c"), 160)) {
+            router.batchInsert(TestDataGenerator.generateMultiDeviceSensorData(30, 5));
+
+            int rows = 0;
+            for (MemoryShard shard : shards) {
+                for (String deviceId : shard.rows.keySet()) {
+                    assertEquals(shard.getName(), router.shardFor(deviceId).getName());
+                    assertEquals(5, shard.rows.get(deviceId).size());
+                }
+                rows += shard.rowCount();
+            }
+            assertEquals(150, rows);
+        }
+    }
+
+    @Test
+    @DisplayName("分组聚合跨分片合并")
+    void testMergeGroups() {
+        List<Map<String, Object>> shardA = Arrays.asList(row("北京机房", 10L, 250.0), row("上海机房", 4L, 100.0));
+        List<Map<String, Object>> shardB = Collections.singletonList(row("北京机房", 6L, 150.0));
+        Map<String, MergeFunction> merges = new LinkedHashMap<>();
+        merges.put("c", MergeFunction.SUM);
+        merges.put("sum_temp", MergeFunction.SUM);
+
+        List<Map<String, Object>> merged = ShardedSensorRouter.mergeGroups(
+                Arrays.asList(shardA, shardB), Collections.singletonList("location"), merges);
+
+        assertEquals(2, merged.size());
+        assertEquals("北京机房", merged.get(0).get("location"));
+        assertEquals(16L, merged.get(0).get("c"));
+        assertEquals(400.0, (Double) merged.get(0).get("sum_temp"), 0.0001);
+        assertEquals(4L, merged.get(1).get("c"));
+    }
+
+    @Test
+    @DisplayName("增加分片：双写、迁移、切换并清理源分片")
+    void testRebalance() {
+        MemoryShard a = new MemoryShard("a");
+        MemoryShard b = new MemoryShard("b");
+        MemoryShard d = new MemoryShard("d");
+        try (ShardedSensorRouter router = new ShardedSensorRouter(Arrays.asList(a, b), Arrays.asList("a", "b"), 160)) {
+            router.batchInsert(TestDataGenerator.generateMultiDeviceSensorData(40, 3));
+            Set<String> deviceIds = new HashSet<>(a.rows.keySet());
+            deviceIds.addAll(b.rows.keySet());
+
+            router.registerShard(d);
+            RebalancePlan plan = router.beginRebalance(Arrays.asList("a", "b", "d"), deviceIds);
+            assertFalse(plan.getMoves().isEmpty());
+            for (RebalancePlan.Move move : plan.getMoves()) {
+                assertEquals("d", move.getToShard());
+            }
+
+            // 迁移期间的写入同时进入新旧分片
+            String movingDevice = plan.getMoves().get(0).getDeviceId();
+            router.batchInsert(TestDataGenerator.generateSensorData(movingDevice, 1));
+            assertEquals(1, d.rows.get(movingDevice).size());
+            MemoryShard source = "a".equals(plan.getMoves().get(0).getFromShard()) ? a : b;
+            assertEquals(4, source.rows.get(movingDevice).size());
+
+            router.migrate(plan, 1000);
+            List<RebalancePlan.Move> leftovers = router.completeRebalance(plan, true);
+
+            assertTrue(leftovers.isEmpty());
+            assertEquals(Arrays.asList("a", "b", "d"), router.getActiveShardNames());
+            for (RebalancePlan.Move move : plan.getMoves()) {
+                assertEquals("d", router.shardFor(move.getDeviceId()).getName());
+                assertFalse(a.rows.containsKey(move.getDeviceId()) || b.rows.containsKey(move.getDeviceId()));
+            }
+            assertEquals(121, a.rowCount() + b.rowCount() + d.rowCount());
+        }
+    }
+
+    @Test
+    @DisplayName("再平衡期间持续写入：切换与删除源子表不丢数据、不重建源子表")
+    void testRebalanceUnderConcurrentWrites() throws Exception {
+        MemoryShard a = new MemoryShard("a");
+        MemoryShard b = new MemoryShard("b");
+        MemoryShard d = new MemoryShard("d");
+        AtomicInteger notified = new AtomicInteger();
+        List<String> devices = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            devices.add(String.format("device%03d", i));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (ShardedSensorRouter router = new ShardedSensorRouter(Arrays.asList(a, b), Arrays.asList("a", "b"), 160,
+                () -> Collections.singletonList(dataList -> notified.addAndGet(dataList.size())))) {
+            AtomicBoolean running = new AtomicBoolean(true);
+            List<Future<Integer>> writers = new ArrayList<>();
+            for (int w = 0; w < 2; w++) {
+                List<String> owned = devices.subList(w * 20, w * 20 + 20);
+                writers.add(executor.submit(() -> {
+                    int batches = 0;
+                    while (running.get() || batches < 5) {
+                        List<SensorData> batch = new ArrayList<>();
+                        for (String deviceId : owned) {
+                            batch.add(SensorData.builder().deviceId(deviceId).ts(1_000_000L + batches).build());
+                        }
+                        router.batchInsert(batch);
+                        batches++;
+                    }
+                    return batches;
+                }));
+            }
+
+            router.registerShard(d);
+            RebalancePlan plan = router.beginRebalance(Arrays.asList("a", "b", "d"), devices);
+            router.migrate(plan, 7);
+            assertTrue(router.completeRebalance(plan, true).isEmpty());
+            Thread.sleep(20);
+            running.set(false);
+
+            int total = 0;
+            for (int w = 0; w < writers.size(); w++) {
+                int batches = writers.get(w).get(10, TimeUnit.SECONDS);
+                total += batches * 20;
+                for (String deviceId : devices.subList(w * 20, w * 20 + 20)) {
+                    String owner = router.shardFor(deviceId).getName();
+                    for (MemoryShard shard : Arrays.asList(a, b, d)) {
+                        NavigableMap<Long, SensorData> rows = shard.rows.get(deviceId);
+                        if (shard.getName().equals(owner)) {
+                            assertEquals(batches, rows.size(), "设备数据丢失: " + deviceId);
+                        } else {
+                            assertNull(rows, "源子表被写入重建: " + deviceId + "@" + shard.getName());
+                        }
+                    }
+                }
+            }
+            assertEquals(total, notified.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("未删除源子表时跨分片明细只保留所属分片的数据")
+    void testScatterListSkipsLeftovers() {
+        MemoryShard a = new MemoryShard("a");
+        MemoryShard b = new MemoryShard("b");
+        try (ShardedSensorRouter router = new ShardedSensorRouter(Arrays.asList(a, b), Collections.singletonList("a"),
+                160)) {
+            router.batchInsert(TestDataGenerator.generateMultiDeviceSensorData(20, 2));
+            RebalancePlan plan = router.beginRebalance(Arrays.asList("a", "b"), a.rows.keySet());
+            assertFalse(plan.getMoves().isEmpty());
+
+            // 迁移中目标分片已在环外，明细只来自 a
+            router.migrate(plan, 100);
+            assertEquals(40, router.scatterList(ShardedSensorRouterTest::query, null, 0).size());
+
+            List<RebalancePlan.Move> leftovers = router.completeRebalance(plan, false);
+            assertEquals(plan.getMoves().size(), leftovers.size());
+            assertEquals(40 + 2 * leftovers.size(), a.rowCount() + b.rowCount());
+            assertEquals(40, router.scatterList(ShardedSensorRouterTest::query, null, 0).size());
+
+            assertTrue(router.dropLeftovers(leftovers).isEmpty());
+            assertEquals(40, a.rowCount() + b.rowCount());
+            assertEquals(40, router.scatterList(ShardedSensorRouterTest::query, null, 0).size());
+        }
+    }
+
+    @Test
+    @DisplayName("存在未删除源子表时跨分片 TopN 在 limit 之前按所属设备过滤")
+    void testScatterTopNWithLeftovers() {
+        MemoryShard a = new MemoryShard("a");
+        MemoryShard b = new MemoryShard("b");
+        try (ShardedSensorRouter router = new ShardedSensorRouter(Arrays.asList(a, b), Collections.singletonList("a"),
+                160)) {
+            List<SensorData> dataList = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                for (int k = 0; k < 3; k++) {
+                    dataList.add(SensorData.builder().deviceId(String.format("device%03d", i)).ts(1000L * i + k).build());
+                }
+            }
+            router.batchInsert(dataList);
+            RebalancePlan plan = router.beginRebalance(Arrays.asList("a", "b"), a.rows.keySet());
+            router.migrate(plan, 100);
+            assertFalse(router.completeRebalance(plan, false).isEmpty());
+
+            a.latestLimit = 30;
+            b.latestLimit = 30;
+            Comparator<SensorData> latestFirst = Comparator.comparing(SensorData::getTs, Comparator.reverseOrder());
+            List<SensorData> top = router.scatterList(ShardedSensorRouterTest::query, latestFirst, 30);
+
+            List<Long> expected = dataList.stream().map(SensorData::getTs)
+                    .sorted(Comparator.reverseOrder()).limit(30).collect(Collectors.toList());
+            assertEquals(expected, top.stream().map(SensorData::getTs).collect(Collectors.toList()));
+            // 源分片在 limit 之前已排除迁出的设备，返回的都是自己所属的数据
+            long ownedByA = dataList.stream()
+                    .filter(data -> "a".equals(router.shardFor(data.getDeviceId()).getName()))
+                    .count();
+            assertEquals(Math.min(30, ownedByA), a.lastListed.size());
+            for (SensorData data : a.lastListed) {
+                assertEquals("a", router.shardFor(data.getDeviceId()).getName());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("存在未删除源子表时跨分片聚合与设备列表不重复统计")
+    void testScatterAggregateWithLeftovers() {
+        MemoryShard a = new MemoryShard("a");
+        MemoryShard b = new MemoryShard("b");
+        try (ShardedSensorRouter router = new ShardedSensorRouter(Arrays.asList(a, b), Collections.singletonList("a"),
+                160)) {
+            router.batchInsert(TestDataGenerator.generateMultiDeviceSensorData(20, 3));
+            Set<String> deviceIds = new HashSet<>(a.rows.keySet());
+            RebalancePlan plan = router.beginRebalance(Arrays.asList("a", "b"), deviceIds);
+            router.migrate(plan, 100);
+            List<RebalancePlan.Move> leftovers = router.completeRebalance(plan, false);
+            assertFalse(leftovers.isEmpty());
+            assertEquals(60 + 3 * leftovers.size(), a.rowCount() + b.rowCount());
+
+            List<Map<String, Object>> counts = router.scatterAggregate(ShardedSensorRouterTest::query,
+                    Collections.singletonList("device_id"), Collections.singletonMap("c", MergeFunction.SUM));
+            assertEquals(20, counts.size());
+            for (Map<String, Object> count : counts) {
+                assertEquals(3L, count.get("c"), "重复统计: " + count.get("device_id"));
+            }
+            assertEquals(deviceIds, router.listDeviceIds());
+        }
+    }
+
+    private static TdQueryWrapper<SensorData> query() {
+        return TdWrappers.queryWrapper(SensorData.class);
+    }
+
+    private static Map<String, Object> row(String location, long count, double sumTemp) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("location", location);
+        row.put("c", count);
+        row.put("sum_temp", sumTemp);
+        return row;
+    }
+
+    /**
+     * 内存分片：按设备保存数据，相同时间戳覆盖（与 TDengine 一致）
+     * 不解析查询条件，只识别 {@link #restrictToDevices} 追加的设备限制：
+     * list 返回限制内的全部数据（设置 latestLimit 时按 ts 倒序取前 N 条），listAsMap 返回每个设备的行数
+     */
+    private static class MemoryShard implements SensorShard {
+
+        private final String name;
+        private final Map<String, NavigableMap<Long, SensorData>> rows = new ConcurrentHashMap<>();
+        private final Map<TdQueryWrapper<SensorData>, Collection<String>> restrictions =
+                Collections.synchronizedMap(new IdentityHashMap<>());
+        private volatile int latestLimit;
+        private volatile List<SensorData> lastListed = Collections.emptyList();
+
+        MemoryShard(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void batchInsert(List<SensorData> dataList) {
+            for (SensorData data : dataList) {
+                rows.computeIfAbsent(data.getDeviceId(), key -> new ConcurrentSkipListMap<>()).put(data.getTs(), data);
+                // 放大写入与切换的交错窗口
+                Thread.yield();
+            }
+        }
+
+        @Override
+        public TdQueryWrapper<SensorData> restrictToDevices(TdQueryWrapper<SensorData> wrapper,
+                                                            Collection<String> deviceIds) {
+            restrictions.put(wrapper, new HashSet<>(deviceIds));
+            return wrapper;
+        }
+
+        @Override
+        public List<SensorData> list(WorkloadKind kind, TdQueryWrapper<SensorData> wrapper) {
+            List<SensorData> result = new ArrayList<>();
+            for (NavigableMap<Long, SensorData> device : devices(wrapper).values()) {
+                result.addAll(device.values());
+            }
+            if (latestLimit > 0) {
+                result.sort(Comparator.comparing(SensorData::getTs, Comparator.reverseOrder()));
+                result = new ArrayList<>(result.subList(0, Math.min(latestLimit, result.size())));
+            }
+            lastListed = result;
+            return result;
+        }
+
+        @Override
+        public List<Map<String, Object>> listAsMap(WorkloadKind kind, TdQueryWrapper<SensorData> wrapper) {
+            List<Map<String, Object>> result = new ArrayList<>();
+            devices(wrapper).forEach((deviceId, device) -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("device_id", deviceId);
+                row.put("c", (long) device.size());
+                result.add(row);
+            });
+            return result;
+        }
+
+        @Override
+        public Page<SensorData> page(WorkloadKind kind, long pageNo, long pageSize,
+                                     TdQueryWrapper<SensorData> wrapper) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<SensorData> readDevice(String deviceId, Long fromTs, int limit) {
+            NavigableMap<Long, SensorData> device = rows.getOrDefault(deviceId, new ConcurrentSkipListMap<>());
+            return (fromTs == null ? device : device.tailMap(fromTs, true)).values().stream()
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public void dropDevice(String deviceId) {
+            rows.remove(deviceId);
+        }
+
+        private Map<String, NavigableMap<Long, SensorData>> devices(TdQueryWrapper<SensorData> wrapper) {
+            Collection<String> deviceIds = restrictions.remove(wrapper);
+            Map<String, NavigableMap<Long, SensorData>> result = new TreeMap<>(rows);
+            if (deviceIds != null) {
+                result.keySet().retainAll(deviceIds);
+            }
+            return result;
+        }
+
+        int rowCount() {
+            return rows.values().stream().mapToInt(Map::size).sum();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.zephyrcicd.demo.slowquery;
+
+import com.zephyrcicd.demo.workload.WorkloadBulkheads;
+import com.zephyrcicd.demo.workload.WorkloadKind;
+import com.zephyrcicd.demo.workload.WorkloadProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 慢查询日志测试，使用动态代理模拟 JDBC 驱动
+ *
+ * @author zephyr
+ */
+class SlowQueryLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("查询形态去掉字面量，保留标识符与时长")
+    void testNormalize() {
+        assertEquals("SELECT * FROM sensor_device001 WHERE ts >= ? AND location = ? AND device_id IN (?)",
+                SlowQueryLog.normalize("SELECT *  FROM sensor_device001\n WHERE ts >= 1700000000000 "
+                        + "AND location = '北京机房' AND device_id IN ('a', 'b', 'c')"));
+        assertEquals("SELECT AVG(temperature) FROM sensors PARTITION BY device_id INTERVAL(1h) LIMIT ?",
+                SlowQueryLog.normalize("SELECT AVG(temperature) FROM sensors PARTITION BY device_id INTERVAL(1h) LIMIT 10"));
+    }
+
+    @Test
+    @DisplayName("环形缓冲保留最近记录，同形态累计统计并可导出")
+    void testRingAndDump() throws IOException {
+        SlowQueryProperties properties = new SlowQueryProperties();
+        properties.setCapacity(2);
+        try (SlowQueryLog log = new SlowQueryLog(properties)) {
+            log.record(record("SELECT * FROM sensors WHERE ts > 1", 10), Collections.emptyList(), null);
+            log.record(record("SELECT * FROM sensors WHERE ts > 2", 30), Collections.emptyList(), null);
+            log.record(record("SELECT COUNT(*) FROM sensors", 5), Collections.emptyList(), null);
+
+            List<SlowQueryRecord> recent = log.getRecent();
+            assertEquals(2, recent.size());
+            assertEquals("SELECT * FROM sensors WHERE ts > 2", recent.get(0).getSql());
+
+            List<QueryShapeStats> shapes = log.getShapes();
+            assertEquals(2, shapes.size());
+            assertEquals("SELECT * FROM sensors WHERE ts > ?", shapes.get(0).getShape());
+            assertEquals(2, shapes.get(0).getCount());
+
+            Path file = log.dump(tempDir.resolve("slow.log"));
+            String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            assertTrue(content.contains("SELECT COUNT(*) FROM sensors"));
+            assertTrue(content.contains("count=2"));
+        }
+    }
+
+    @Test
+    @DisplayName("数据源包装记录 SQL、参数、行数，低于阈值不记录")
+    void testTracingDataSource() throws SQLException {
+        SlowQueryProperties properties = new SlowQueryProperties();
+        properties.setThresholdMs(0);
+        try (SlowQueryLog log = new SlowQueryLog(properties)) {
+            DataSource dataSource = TracingDataSource.wrap(fakeDataSource(3), () -> log);
+            String sql = "SELECT * FROM sensors WHERE device_id = ? AND ts >= ?";
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setString(1, "device001");
+                statement.setLong(2, 1700000000000L);
+                int rows = 0;
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        rows++;
+                    }
+                }
+                assertEquals(3, rows);
+            }
+
+            assertEquals(1, log.getRecent().size());
+            SlowQueryRecord record = log.getRecent().get(0);
+            assertEquals(sql, record.getSql());
+            assertEquals(Arrays.asList("device001", "1700000000000"), record.getParameters());
+            assertEquals(3, record.getRowCount());
+            assertTrue(record.getTotalNanos() >= record.getExecuteNanos() + record.getFetchNanos());
+        }
+
+        properties.setThresholdMs(60_000);
+        try (SlowQueryLog log = new SlowQueryLog(properties)) {
+            DataSource dataSource = TracingDataSource.wrap(fakeDataSource(3), () -> log);
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement("SELECT 1")) {
+                statement.executeQuery().close();
+            }
+            assertTrue(log.getRecent().isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("执行计划采集在 SCAN 隔离舱内执行")
+    void testExplainUsesScanBulkhead() throws Exception {
+        SlowQueryProperties properties = new SlowQueryProperties();
+        properties.setThresholdMs(0);
+        properties.setExplain(true);
+        properties.setExplainSampleRate(1.0);
+        WorkloadBulkheads bulkheads = new WorkloadBulkheads(new WorkloadProperties());
+        try (SlowQueryLog log = new SlowQueryLog(properties, bulkheads)) {
+            DataSource dataSource = TracingDataSource.wrap(fakeDataSource(1), () -> log);
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement("SELECT * FROM sensors")) {
+                statement.executeQuery().close();
+            }
+
+            SlowQueryRecord record = log.getRecent().get(0);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (record.getPlan() == null && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertNotNull(record.getPlan());
+            assertEquals(1L, bulkheads.get(WorkloadKind.SCAN).getCompleted());
+        }
+    }
+
+    private static SlowQueryRecord record(String sql, long millis) {
+        return new SlowQueryRecord(System.currentTimeMillis(), sql, Collections.emptyList(), 0, 1,
+                millis * 1_000_000, 0, millis * 1_000_000, "test", null);
+    }
+
+    /**
+     * 模拟驱动：每次查询返回 rows 行
+     */
+    private static DataSource fakeDataSource(int rows) {
+        ResultSet resultSet = fake(ResultSet.class, new BiFunction<Method, Object[], Object>() {
+            private final AtomicInteger remaining = new AtomicInteger(rows);
+
+            @Override
+            public Object apply(Method method, Object[] args) {
+                return "next".equals(method.getName()) ? remaining.getAndDecrement() > 0 : null;
+            }
+        });
+        PreparedStatement statement = fake(PreparedStatement.class,
+                (method, args) -> "executeQuery".equals(method.getName()) ? resultSet : null);
+        Connection connection = fake(Connection.class,
+                (method, args) -> "prepareStatement".equals(method.getName()) ? statement : null);
+        return fake(DataSource.class, (method, args) -> "getConnection".equals(method.getName()) ? connection : null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T fake(Class<T> type, BiFunction<Method, Object[], Object> behavior) {
+        return (T) Proxy.newProxyInstance(SlowQueryLogTest.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    Object result = behavior.apply(method, args);
+                    if (result != null || !method.getReturnType().isPrimitive()) {
+                        return result;
+                    }
+                    Class<?> returnType = method.getReturnType();
+                    if (returnType == boolean.class) {
+                        return false;
+                    }
+                    if (returnType == void.class) {
+                        return null;
+                    }
+                    return returnType == long.class ? (Object) 0L : (Object) 0;
+                });
+    }
+}
@@ -0,0 +1,167 @@
+package com.zephyrcicd.demo.transfer;
+
+import com.zephyrcicd.demo.entity.SensorData;
+import com.zephyrcicd.demo.util.TestDataGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 批量导入导出的断点续传测试，使用内存数据源代替 TDengine
+ *
+ * @author zephyr
+ */
+class BulkTransferServiceTest {
+
+    private static final String DEVICE = "device001";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("导出中断后从检查点续传，数据不重复不遗漏")
+    void testExportResume() throws IOException {
+        MemorySource source = new MemorySource(TestDataGenerator.generateSensorData(DEVICE, 35));
+        long startTs = source.rows.firstKey();
+        long endTs = source.rows.lastKey() + 1;
+        BulkTransferService service = new BulkTransferService(source, batch -> { }, () -> { }, "local", properties());
+
+        // 第 3 批查询失败：前两批已落盘并记录检查点
+        source.failOnFetch = 3;
+        TransferReport failed = service.exportRange(tempDir, Collections.singletonList(DEVICE), startTs, endTs);
+        assertEquals(1, failed.getFailures().size());
+        assertTrue(Files.exists(tempDir.resolve(DEVICE + BulkTransferService.CHECKPOINT_SUFFIX)));
+        assertFalse(Files.exists(tempDir.resolve(DEVICE + BulkTransferService.DATA_SUFFIX)));
+
+        source.failOnFetch = -1;
+        TransferReport resumed = service.exportRange(tempDir, Collections.singletonList(DEVICE), startTs, endTs);
+        assertTrue(resumed.getFailures().isEmpty());
+        assertEquals(35L, resumed.getRowsByTable().get(DEVICE).longValue());
+        assertFalse(Files.exists(tempDir.resolve(DEVICE + BulkTransferService.CHECKPOINT_SUFFIX)));
+
+        List<Long> exported = readFile(tempDir.resolve(DEVICE + BulkTransferService.DATA_SUFFIX)).stream()
+                .map(SensorData::getTs)
+                .collect(Collectors.toList());
+        assertEquals(new ArrayList<>(source.rows.keySet()), exported);
+
+        // 已完成的子表再次导出直接跳过
+        assertEquals(1, service.exportRange(tempDir, Collections.singletonList(DEVICE), startTs, endTs)
+                .getSkippedCount());
+    }
+
+    @Test
+    @DisplayName("同一目录不接受不同的导出时间范围")
+    void testRangeMismatchRejected() {
+        MemorySource source = new MemorySource(TestDataGenerator.generateSensorData(DEVICE, 5));
+        BulkTransferService service = new BulkTransferService(source, batch -> { }, () -> { }, "local", properties());
+        service.exportRange(tempDir, Collections.singletonList(DEVICE), 0, 100);
+
+        assertThrows(IllegalStateException.class,
+                () -> service.exportRange(tempDir, Collections.singletonList(DEVICE), 0, 200));
+    }
+
+    @Test
+    @DisplayName("导入只写入一次，完成后执行回调")
+    void testImportOnce() {
+        MemorySource source = new MemorySource(TestDataGenerator.generateSensorData(DEVICE, 25));
+        List<SensorData> imported = new ArrayList<>();
+        AtomicInteger callbacks = new AtomicInteger();
+        BulkTransferService service = new BulkTransferService(source, imported::addAll,
+                callbacks::incrementAndGet, "local", properties());
+        service.exportRange(tempDir, Collections.singletonList(DEVICE), 0, Long.MAX_VALUE);
+
+        assertEquals(25L, service.importDirectory(tempDir).getTotalRows());
+        assertEquals(1, service.importDirectory(tempDir).getSkippedCount());
+        assertEquals(25, imported.size());
+        assertEquals(1, callbacks.get());
+    }
+
+    @Test
+    @DisplayName("同一导出目录可以导入到不同的目标库")
+    void testImportPerTarget() {
+        MemorySource source = new MemorySource(TestDataGenerator.generateSensorData(DEVICE, 25));
+        List<SensorData> first = new ArrayList<>();
+        List<SensorData> second = new ArrayList<>();
+        new BulkTransferService(source, batch -> { }, () -> { }, "local", properties())
+                .exportRange(tempDir, Collections.singletonList(DEVICE), 0, Long.MAX_VALUE);
+
+        assertEquals(25L, new BulkTransferService(source, first::addAll, () -> { }, "cluster-a", properties())
+                .importDirectory(tempDir).getTotalRows());
+        assertEquals(25L, new BulkTransferService(source, second::addAll, () -> { }, "cluster-b", properties())
+                .importDirectory(tempDir).getTotalRows());
+        assertEquals(first.size(), second.size());
+    }
+
+    private static BulkTransferProperties properties() {
+        BulkTransferProperties properties = new BulkTransferProperties();
+        properties.setParallelism(1);
+        properties.setBufferSize(256);
+        properties.setFetchSize(10);
+        properties.setBatchSize(7);
+        return properties;
+    }
+
+    private static List<SensorData> readFile(Path file) throws IOException {
+        List<SensorData> result = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            SensorDataFileReader reader = new SensorDataFileReader(channel, 256);
+            reader.readHeader();
+            SensorData data;
+            while ((data = reader.read()) != null) {
+                result.add(data);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 单设备内存数据源，可在第 N 次 fetch 时抛出异常
+     */
+    private static class MemorySource implements TransferSource {
+
+        private final NavigableMap<Long, SensorData> rows = new TreeMap<>();
+        private int fetchCount;
+        private int failOnFetch = -1;
+
+        MemorySource(List<SensorData> dataList) {
+            for (SensorData data : dataList) {
+                rows.put(data.getTs(), data);
+            }
+        }
+
+        @Override
+        public List<String> listDeviceIds(long startTs, long endTs) {
+            return Collections.singletonList(DEVICE);
+        }
+
+        @Override
+        public SensorData findTags(String deviceId) {
+            return rows.isEmpty() ? null : rows.firstEntry().getValue();
+        }
+
+        @Override
+        public List<SensorData> fetch(String deviceId, long fromTs, long endTs, int limit) {
+            if (++fetchCount == failOnFetch) {
+                throw new IllegalStateException("模拟查询失败");
+            }
+            return rows.subMap(fromTs, true, endTs, false).values().stream()
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        }
+    }
+}
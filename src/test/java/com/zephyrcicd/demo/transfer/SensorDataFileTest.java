@@ -0,0 +1,93 @@
+package com.zephyrcicd.demo.transfer;
+
+import com.zephyrcicd.demo.entity.SensorData;
+import com.zephyrcicd.demo.util.TestDataGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 二进制导出文件读写测试（不依赖 TDengine）
+ *
+ * @author zephyr
+ */
+class SensorDataFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("写入后读取数据一致（小缓冲区跨界）")
+    void testRoundTrip() throws IOException {
+        List<SensorData> source = TestDataGenerator.generateAlertData("device001", 500);
+        source.get(0).setRemark(null);
+        source.get(1).setTemperature(null);
+        source.get(2).setVoltage(null);
+        source.get(3).setStatus(null);
+        Path file = tempDir.resolve("device001.sdat");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            SensorDataFileWriter writer = new SensorDataFileWriter(channel, 256);
+            writer.writeHeader(source.get(0));
+            for (SensorData data : source) {
+                writer.write(data);
+            }
+            writer.flush();
+        }
+
+        List<SensorData> result = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            SensorDataFileReader reader = new SensorDataFileReader(channel, 256);
+            reader.readHeader();
+            assertEquals("device001", reader.getDeviceId());
+            SensorData data;
+            while ((data = reader.read()) != null) {
+                result.add(data);
+            }
+        }
+
+        assertEquals(source.size(), result.size());
+        for (int i = 0; i < source.size(); i++) {
+            SensorData expected = source.get(i);
+            SensorData actual = result.get(i);
+            assertEquals(expected.getDeviceId(), actual.getDeviceId());
+            assertEquals(expected.getLocation(), actual.getLocation());
+            assertEquals(expected.getDeviceType(), actual.getDeviceType());
+            assertEquals(expected.getTs(), actual.getTs());
+            assertEquals(expected.getTemperature(), actual.getTemperature());
+            assertEquals(expected.getHumidity(), actual.getHumidity());
+            assertEquals(expected.getVoltage(), actual.getVoltage());
+            assertEquals(expected.getStatus(), actual.getStatus());
+            assertEquals(expected.getRemark(), actual.getRemark());
+        }
+    }
+
+    @Test
+    @DisplayName("截断的文件读取报错")
+    void testTruncatedFile() throws IOException {
+        Path file = tempDir.resolve("device002.sdat");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            SensorDataFileWriter writer = new SensorDataFileWriter(channel, 1024);
+            SensorData data = TestDataGenerator.generateSensorData("device002", 1).get(0);
+            writer.writeHeader(data);
+            writer.write(data);
+            writer.flush();
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            SensorDataFileReader reader = new SensorDataFileReader(channel, 1024);
+            reader.readHeader();
+            assertThrows(IOException.class, reader::read);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.zephyrcicd.demo.workload;
+
+import com.zephyrcicd.demo.routing.DataSourceRoute;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 隔离舱测试（不依赖 TDengine）
+ *
+ * @author zephyr
+ */
+class BulkheadTest {
+
+    @Test
+    @DisplayName("并发已满时等待超时被拒绝，其他隔离舱不受影响")
+    void testRejectWhenSaturated() throws Exception {
+        WorkloadProperties properties = new WorkloadProperties();
+        properties.setScan(new WorkloadProperties.Limits(1, 10, 50));
+        WorkloadBulkheads bulkheads = new WorkloadBulkheads(properties);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> bulkheads.run(WorkloadKind.SCAN, () -> {
+                started.countDown();
+                awaitQuietly(release);
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Bulkhead scan = bulkheads.get(WorkloadKind.SCAN);
+            assertEquals(1, scan.getActive());
+            assertEquals(1.0, scan.getSaturation(), 0.0001);
+            assertThrows(BulkheadFullException.class, () -> bulkheads.run(WorkloadKind.SCAN, () -> { }));
+            assertEquals(1, scan.getRejected());
+
+            assertEquals("ok", bulkheads.execute(WorkloadKind.WRITE, () -> "ok"));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(0, bulkheads.get(WorkloadKind.SCAN).getActive());
+    }
+
+    @Test
+    @DisplayName("排队数超过上限时立即拒绝")
+    void testRejectWhenQueueFull() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 0, 10_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> bulkhead.execute(() -> {
+                started.countDown();
+                awaitQuietly(release);
+                return null;
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            long start = System.nanoTime();
+            assertThrows(BulkheadFullException.class, () -> bulkhead.execute(() -> null));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("许可释放后先交给排队中的调用，新调用不插队")
+    void testQueuedCallerFirst() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 10, 5_000);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> holder = executor.submit(() -> {
+                bulkhead.execute(() -> {
+                    started.countDown();
+                    awaitQuietly(release);
+                    return null;
+                });
+                // 释放许可后立即再次进入，此时排队的调用尚未被唤醒
+                bulkhead.execute(() -> order.add("newcomer"));
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<?> queued = executor.submit(() -> bulkhead.execute(() -> order.add("queued")));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (bulkhead.getWaiting() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(1, bulkhead.getWaiting());
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+            queued.get(5, TimeUnit.SECONDS);
+            assertEquals(Arrays.asList("queued", "newcomer"), order);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("隔离舱内执行时路由到对应负载类型，退出后恢复")
+    void testRouteInsideBulkhead() {
+        WorkloadBulkheads bulkheads = new WorkloadBulkheads(new WorkloadProperties());
+        assertNull(DataSourceRoute.currentWorkload());
+        assertEquals(WorkloadKind.POINT_READ, bulkheads.execute(WorkloadKind.SCAN,
+                () -> bulkheads.execute(WorkloadKind.POINT_READ, DataSourceRoute::currentWorkload)));
+        bulkheads.run(WorkloadKind.SCAN, () -> assertEquals(WorkloadKind.SCAN, DataSourceRoute.currentWorkload()));
+        assertNull(DataSourceRoute.currentWorkload());
+    }
+
+    @Test
+    @DisplayName("读负载与写入共用连接池时必须为写入保留连接")
+    void testCheckConnections() {
+        WorkloadProperties properties = new WorkloadProperties();
+        // 默认：读负载使用独立连接池，写入独占 td-orm 连接池
+        properties.checkConnections(10);
+
+        properties.getPointRead().setPoolSize(0);
+        assertThrows(IllegalStateException.class, () -> properties.checkConnections(10));
+        properties.checkConnections(18);
+        properties.checkConnections(0);
+
+        properties.getScan().setMaxConcurrent(5);
+        assertThrows(IllegalStateException.class, () -> properties.checkConnections(18));
+
+        WorkloadProperties unlimitedWrite = new WorkloadProperties();
+        unlimitedWrite.getWrite().setMaxConcurrent(0);
+        assertThrows(IllegalStateException.class, () -> unlimitedWrite.checkConnections(0));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
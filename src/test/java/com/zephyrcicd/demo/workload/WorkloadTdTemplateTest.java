@@ -0,0 +1,70 @@
+package com.zephyrcicd.demo.workload;
+
+import com.zephyrcicd.demo.entity.SensorData;
+import com.zephyrcicd.demo.ingest.SensorDataWriter;
+import com.zephyrcicd.demo.util.TestDataGenerator;
+import com.zephyrcicd.tdengineorm.enums.TdSelectFuncEnum;
+import com.zephyrcicd.tdengineorm.wrapper.TdQueryWrapper;
+import com.zephyrcicd.tdengineorm.wrapper.TdWrappers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 经隔离舱与独立连接池执行分析查询（需要 TDengine）
+ *
+ * @author zephyr
+ */
+@SpringBootTest
+class WorkloadTdTemplateTest {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadTdTemplateTest.class);
+
+    @Autowired
+    private WorkloadTdTemplate workloadTdTemplate;
+
+    @Autowired
+    private WorkloadBulkheads workloadBulkheads;
+
+    @Autowired
+    private SensorDataWriter sensorDataWriter;
+
+    @Test
+    @DisplayName("按位置分组统计与计数在 SCAN 隔离舱内执行")
+    void testScanQueries() {
+        sensorDataWriter.batchInsert(TestDataGenerator.generateSensorData("device001", 10));
+        long endTime = System.currentTimeMillis();
+        long startTime = endTime - 24 * 60 * 60 * 1000;
+        Bulkhead scan = workloadBulkheads.get(WorkloadKind.SCAN);
+        long completed = scan.getCompleted();
+
+        TdQueryWrapper<SensorData> groupWrapper = TdWrappers.queryWrapper(SensorData.class)
+                .select(SensorData::getLocation)
+                .selectFunc(TdSelectFuncEnum.COUNT, "*", "c")
+                .ge(SensorData::getTs, startTime)
+                .le(SensorData::getTs, endTime)
+                .groupBy(SensorData::getLocation)
+                .orderByDesc("c");
+        List<Map<String, Object>> result = workloadTdTemplate.listAsMap(WorkloadKind.SCAN, groupWrapper);
+
+        TdQueryWrapper<SensorData> countWrapper = TdWrappers.queryWrapper(SensorData.class)
+                .eq(SensorData::getDeviceId, "device001")
+                .ge(SensorData::getTs, startTime)
+                .le(SensorData::getTs, endTime);
+        Long count = workloadTdTemplate.count(WorkloadKind.SCAN, countWrapper);
+
+        log.info("✓ SCAN 隔离舱查询: {} 个位置, device001 共 {} 条, {}", result.size(), count, scan);
+        assertFalse(result.isEmpty());
+        assertTrue(count >= 10);
+        assertEquals(completed + 2, scan.getCompleted());
+        assertEquals(0, scan.getActive());
+    }
+}